@@ -1,5 +1,8 @@
 package com.getrix.employeemanager.gateway.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +12,393 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Security security = new Security();
+
+    private final UserPurge userPurge = new UserPurge();
+
+    private final UserCount userCount = new UserCount();
+
+    private final UserImport userImport = new UserImport();
+
+    private final Database database = new Database();
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public UserPurge getUserPurge() {
+        return userPurge;
+    }
+
+    public UserCount getUserCount() {
+        return userCount;
+    }
+
+    public UserImport getUserImport() {
+        return userImport;
+    }
+
+    public static class Security {
+
+        private final Jwt jwt = new Jwt();
+
+        private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+
+        private final Revocation revocation = new Revocation();
+
+        private final RefreshToken refreshToken = new RefreshToken();
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        private final LoginThrottling loginThrottling = new LoginThrottling();
+
+        public Jwt getJwt() {
+            return jwt;
+        }
+
+        public VerifiedTokenCache getVerifiedTokenCache() {
+            return verifiedTokenCache;
+        }
+
+        public Revocation getRevocation() {
+            return revocation;
+        }
+
+        public RefreshToken getRefreshToken() {
+            return refreshToken;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public LoginThrottling getLoginThrottling() {
+            return loginThrottling;
+        }
+
+        public static class Jwt {
+
+            private String signatureAlgorithm = "HS512";
+
+            private Duration keyRotationPeriod = Duration.ofDays(7);
+
+            private Duration jwksCacheDuration = Duration.ofHours(1);
+
+            public String getSignatureAlgorithm() {
+                return signatureAlgorithm;
+            }
+
+            public void setSignatureAlgorithm(String signatureAlgorithm) {
+                this.signatureAlgorithm = signatureAlgorithm;
+            }
+
+            public Duration getKeyRotationPeriod() {
+                return keyRotationPeriod;
+            }
+
+            public void setKeyRotationPeriod(Duration keyRotationPeriod) {
+                this.keyRotationPeriod = keyRotationPeriod;
+            }
+
+            public Duration getJwksCacheDuration() {
+                return jwksCacheDuration;
+            }
+
+            public void setJwksCacheDuration(Duration jwksCacheDuration) {
+                this.jwksCacheDuration = jwksCacheDuration;
+            }
+        }
+
+        public static class VerifiedTokenCache {
+
+            private boolean enabled = true;
+
+            private long maximumSize = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMaximumSize() {
+                return maximumSize;
+            }
+
+            public void setMaximumSize(long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+        }
+
+        public static class Revocation {
+
+            private long expectedRevocations = 100000;
+
+            private double falsePositiveProbability = 0.001;
+
+            public long getExpectedRevocations() {
+                return expectedRevocations;
+            }
+
+            public void setExpectedRevocations(long expectedRevocations) {
+                this.expectedRevocations = expectedRevocations;
+            }
+
+            public double getFalsePositiveProbability() {
+                return falsePositiveProbability;
+            }
+
+            public void setFalsePositiveProbability(double falsePositiveProbability) {
+                this.falsePositiveProbability = falsePositiveProbability;
+            }
+        }
+
+        public static class RefreshToken {
+
+            private Duration tokenValidity = Duration.ofDays(1);
+
+            private Duration tokenValidityForRememberMe = Duration.ofDays(30);
+
+            public Duration getTokenValidity() {
+                return tokenValidity;
+            }
+
+            public void setTokenValidity(Duration tokenValidity) {
+                this.tokenValidity = tokenValidity;
+            }
+
+            public Duration getTokenValidityForRememberMe() {
+                return tokenValidityForRememberMe;
+            }
+
+            public void setTokenValidityForRememberMe(Duration tokenValidityForRememberMe) {
+                this.tokenValidityForRememberMe = tokenValidityForRememberMe;
+            }
+        }
+
+        public static class PasswordHashing {
+
+            private int threads = Runtime.getRuntime().availableProcessors();
+
+            private int queueCapacity = 100;
+
+            private int strength = 10;
+
+            private boolean calibrate = false;
+
+            private Duration targetLatency = Duration.ofMillis(250);
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            public boolean isCalibrate() {
+                return calibrate;
+            }
+
+            public void setCalibrate(boolean calibrate) {
+                this.calibrate = calibrate;
+            }
+
+            public Duration getTargetLatency() {
+                return targetLatency;
+            }
+
+            public void setTargetLatency(Duration targetLatency) {
+                this.targetLatency = targetLatency;
+            }
+        }
+
+        public static class LoginThrottling {
+
+            private boolean enabled = true;
+
+            private long loginCapacity = 10;
+
+            private Duration loginRefillPeriod = Duration.ofMinutes(5);
+
+            private long addressCapacity = 100;
+
+            private Duration addressRefillPeriod = Duration.ofMinutes(1);
+
+            private List<String> trustedProxies = new ArrayList<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getLoginCapacity() {
+                return loginCapacity;
+            }
+
+            public void setLoginCapacity(long loginCapacity) {
+                this.loginCapacity = loginCapacity;
+            }
+
+            public Duration getLoginRefillPeriod() {
+                return loginRefillPeriod;
+            }
+
+            public void setLoginRefillPeriod(Duration loginRefillPeriod) {
+                this.loginRefillPeriod = loginRefillPeriod;
+            }
+
+            public long getAddressCapacity() {
+                return addressCapacity;
+            }
+
+            public void setAddressCapacity(long addressCapacity) {
+                this.addressCapacity = addressCapacity;
+            }
+
+            public Duration getAddressRefillPeriod() {
+                return addressRefillPeriod;
+            }
+
+            public void setAddressRefillPeriod(Duration addressRefillPeriod) {
+                this.addressRefillPeriod = addressRefillPeriod;
+            }
+
+            public List<String> getTrustedProxies() {
+                return trustedProxies;
+            }
+
+            public void setTrustedProxies(List<String> trustedProxies) {
+                this.trustedProxies = trustedProxies;
+            }
+        }
+    }
+
+    public static class UserPurge {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class UserCount {
+
+        private Duration reconcilePeriod = Duration.ofMinutes(5);
+
+        private boolean plannerEstimate = false;
+
+        public Duration getReconcilePeriod() {
+            return reconcilePeriod;
+        }
+
+        public void setReconcilePeriod(Duration reconcilePeriod) {
+            this.reconcilePeriod = reconcilePeriod;
+        }
+
+        public boolean isPlannerEstimate() {
+            return plannerEstimate;
+        }
+
+        public void setPlannerEstimate(boolean plannerEstimate) {
+            this.plannerEstimate = plannerEstimate;
+        }
+    }
+
+    public static class UserImport {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Database {
+
+        private final Replicas replicas = new Replicas();
+
+        public Replicas getReplicas() {
+            return replicas;
+        }
+
+        public static class Replicas {
+
+            private List<String> urls = new ArrayList<>();
+
+            private Duration healthCheckPeriod = Duration.ofSeconds(10);
+
+            private String lagQuery;
+
+            private Duration maxLag = Duration.ofSeconds(10);
+
+            public List<String> getUrls() {
+                return urls;
+            }
+
+            public void setUrls(List<String> urls) {
+                this.urls = urls;
+            }
+
+            public Duration getHealthCheckPeriod() {
+                return healthCheckPeriod;
+            }
+
+            public void setHealthCheckPeriod(Duration healthCheckPeriod) {
+                this.healthCheckPeriod = healthCheckPeriod;
+            }
+
+            public String getLagQuery() {
+                return lagQuery;
+            }
+
+            public void setLagQuery(String lagQuery) {
+                this.lagQuery = lagQuery;
+            }
+
+            public Duration getMaxLag() {
+                return maxLag;
+            }
+
+            public void setMaxLag(Duration maxLag) {
+                this.maxLag = maxLag;
+            }
+        }
+    }
+}
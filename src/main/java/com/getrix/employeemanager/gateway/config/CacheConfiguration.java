@@ -1,8 +1,12 @@
 package com.getrix.employeemanager.gateway.config;
 
+import com.getrix.employeemanager.gateway.security.LoginThrottler;
+import com.getrix.employeemanager.gateway.security.jwt.JwtKeyRing;
+import com.getrix.employeemanager.gateway.security.jwt.TokenRevocationStore;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,7 +68,7 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         log.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("employeeManagerGateway");
         if (hazelCastInstance != null) {
@@ -107,6 +111,10 @@ public class CacheConfiguration {
         config.setManagementCenterConfig(new ManagementCenterConfig());
         config.addMapConfig(initializeDefaultMapConfig(jHipsterProperties));
         config.addMapConfig(initializeDomainMapConfig(jHipsterProperties));
+        config.addMapConfig(initializeJwtKeyRingMapConfig(jHipsterProperties));
+        config.addMapConfig(initializeTokenRevocationMapConfig(TokenRevocationStore.REVOKED_TOKENS_MAP, jHipsterProperties));
+        config.addMapConfig(initializeTokenRevocationMapConfig(TokenRevocationStore.REVOKED_SUBJECTS_MAP, jHipsterProperties));
+        config.addCacheConfig(initializeLoginAttemptsCacheConfig(jHipsterProperties, applicationProperties));
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -146,6 +154,46 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
+    private MapConfig initializeJwtKeyRingMapConfig(JHipsterProperties jHipsterProperties) {
+        MapConfig mapConfig = new MapConfig(JwtKeyRing.KEY_RING_MAP);
+        // The signing keys must never be evicted, or the tokens they signed could not be verified anymore
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        mapConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.NONE);
+        return mapConfig;
+    }
+
+    private MapConfig initializeTokenRevocationMapConfig(String name, JHipsterProperties jHipsterProperties) {
+        MapConfig mapConfig = new MapConfig(name);
+        // Revocations expire with the tokens they apply to, evicting them earlier would make the tokens valid again
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        mapConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.NONE);
+        return mapConfig;
+    }
+
+    private CacheSimpleConfig initializeLoginAttemptsCacheConfig(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Security.LoginThrottling loginThrottling = applicationProperties.getSecurity().getLoginThrottling();
+        CacheSimpleConfig cacheConfig = new CacheSimpleConfig();
+        cacheConfig.setName(LoginThrottler.LOGIN_ATTEMPTS_CACHE);
+        cacheConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        // A bucket left untouched for its refill period is full again, and does not need to be kept
+        long idleSeconds = Math.max(
+            loginThrottling.getLoginRefillPeriod().getSeconds(),
+            loginThrottling.getAddressRefillPeriod().getSeconds()
+        );
+        cacheConfig.setExpiryPolicyFactoryConfig(
+            new CacheSimpleConfig.ExpiryPolicyFactoryConfig(
+                new CacheSimpleConfig.ExpiryPolicyFactoryConfig.TimedExpiryPolicyFactoryConfig(
+                    CacheSimpleConfig.ExpiryPolicyFactoryConfig.TimedExpiryPolicyFactoryConfig.ExpiryPolicyType.TOUCHED,
+                    new CacheSimpleConfig.ExpiryPolicyFactoryConfig.DurationConfig(idleSeconds, TimeUnit.SECONDS)
+                )
+            )
+        );
+        return cacheConfig;
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
@@ -0,0 +1,169 @@
+package com.getrix.employeemanager.gateway.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import reactor.core.publisher.Mono;
+
+/**
+ * The pools of connections to the databases, by name: the primary database, and its replicas.
+ * <p>
+ * The pools are sized and validated with the {@code spring.r2dbc.pool} properties, and warmed up with their
+ * {@code initial-size} connections as soon as they are created. Their acquired, allocated, idle and pending
+ * connections are exported as the {@code r2dbc.pool.*} gauges tagged with the {@code name} of the pool, and the time to
+ * acquire a connection as the {@code r2dbc.pool.acquire} timer.
+ */
+public class ConnectionPools implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final Logger log = LoggerFactory.getLogger(ConnectionPools.class);
+
+    private final R2dbcProperties.Pool properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ConnectionPool> pools = new LinkedHashMap<>();
+
+    public ConnectionPools(R2dbcProperties.Pool properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Pool the connections to a database, unless the pools are disabled.
+     * @param name the name of the pool.
+     * @param connectionFactory the connections to the database.
+     * @return the pooled connections.
+     */
+    public ConnectionFactory add(String name, ConnectionFactory connectionFactory) {
+        if (!properties.isEnabled()) {
+            return connectionFactory;
+        }
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory).name(name);
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(properties.getInitialSize()).to(builder::initialSize);
+        map.from(properties.getMaxSize()).to(builder::maxSize);
+        map.from(properties.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(properties.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(properties.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(properties.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(properties.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(properties.getValidationDepth()).to(builder::validationDepth);
+        ConnectionPool pool = new ConnectionPool(builder.build());
+        pools.put(name, pool);
+
+        new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(meterRegistry);
+        Timer acquireTimer = Timer
+            .builder("r2dbc.pool.acquire")
+            .description("The time to acquire a connection from the pool")
+            .tag("name", name)
+            .register(meterRegistry);
+        pool
+            .warmup()
+            .subscribe(
+                count -> log.debug("Warmed up {} connections to the {} database", count, name),
+                e -> log.warn("Could not warm up the connections to the {} database", name, e)
+            );
+        return new TimedConnectionFactory(pool, acquireTimer);
+    }
+
+    /**
+     * @return the current state of the pools, by name.
+     */
+    public Map<String, PoolState> getStates() {
+        Map<String, PoolState> states = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> pool.getMetrics().ifPresent(metrics -> states.put(name, new PoolState(metrics))));
+        return states;
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(ConnectionPool::dispose);
+    }
+
+    /**
+     * The connections of a pool, at a given time.
+     */
+    public static class PoolState {
+
+        private final int acquired;
+        private final int allocated;
+        private final int idle;
+        private final int pending;
+        private final int maxAllocated;
+        private final int maxPending;
+
+        PoolState(PoolMetrics metrics) {
+            this.acquired = metrics.acquiredSize();
+            this.allocated = metrics.allocatedSize();
+            this.idle = metrics.idleSize();
+            this.pending = metrics.pendingAcquireSize();
+            this.maxAllocated = metrics.getMaxAllocatedSize();
+            this.maxPending = metrics.getMaxPendingAcquireSize();
+        }
+
+        public int getAcquired() {
+            return acquired;
+        }
+
+        public int getAllocated() {
+            return allocated;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        public int getMaxAllocated() {
+            return maxAllocated;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+    }
+
+    private static class TimedConnectionFactory implements ConnectionFactory {
+
+        private final ConnectionPool pool;
+
+        private final Timer acquireTimer;
+
+        TimedConnectionFactory(ConnectionPool pool, Timer acquireTimer) {
+            this.pool = pool;
+            this.acquireTimer = acquireTimer;
+        }
+
+        @Override
+        public Mono<Connection> create() {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start();
+                return pool.create().doFinally(signal -> sample.stop(acquireTimer));
+            });
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return pool.getMetadata();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.getrix.employeemanager.gateway.config;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the current state of the database connection pools on {@code /management/connectionpools}.
+ */
+@Component
+@Endpoint(id = "connectionpools")
+public class ConnectionPoolsEndpoint {
+
+    private final ConnectionPools connectionPools;
+
+    public ConnectionPoolsEndpoint(ConnectionPools connectionPools) {
+        this.connectionPools = connectionPools;
+    }
+
+    @ReadOperation
+    public Map<String, ConnectionPools.PoolState> connectionPools() {
+        return connectionPools.getStates();
+    }
+}
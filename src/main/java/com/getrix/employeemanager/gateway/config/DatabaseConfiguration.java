@@ -1,6 +1,9 @@
 package com.getrix.employeemanager.gateway.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -13,6 +16,8 @@ import java.util.Collections;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -28,7 +33,9 @@ import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
@@ -36,6 +43,58 @@ import tech.jhipster.config.JHipsterConstants;
 @EnableTransactionManagement
 public class DatabaseConfiguration {
 
+    @Bean
+    public ConnectionPools connectionPools(R2dbcProperties r2dbcProperties, MeterRegistry meterRegistry) {
+        return new ConnectionPools(r2dbcProperties.getPool(), meterRegistry);
+    }
+
+    /**
+     * The pooled connections to the {@code spring.r2dbc.url} database, or, with
+     * {@code application.database.replicas.urls}, routed between this primary database and its replicas.
+     */
+    @Bean
+    public ConnectionFactory connectionFactory(
+        R2dbcProperties r2dbcProperties,
+        ApplicationProperties applicationProperties,
+        ConnectionPools connectionPools,
+        MeterRegistry meterRegistry
+    ) {
+        ConnectionFactory primary = connectionPools.add(
+            ConnectionPools.PRIMARY,
+            createConnectionFactory(r2dbcProperties, r2dbcProperties.getUrl())
+        );
+        ApplicationProperties.Database.Replicas replicas = applicationProperties.getDatabase().getReplicas();
+        if (replicas.getUrls().isEmpty()) {
+            return primary;
+        }
+        List<ConnectionFactory> replicaFactories = new ArrayList<>();
+        for (String url : replicas.getUrls()) {
+            String name = ReplicaRoutingConnectionFactory.REPLICA_PREFIX + replicaFactories.size();
+            replicaFactories.add(connectionPools.add(name, createConnectionFactory(r2dbcProperties, url)));
+        }
+        return new ReplicaRoutingConnectionFactory(primary, replicaFactories, replicas, meterRegistry);
+    }
+
+    private static ConnectionFactory createConnectionFactory(R2dbcProperties r2dbcProperties, String url) {
+        return ConnectionFactoryBuilder
+            .withUrl(url)
+            .configure(options -> {
+                if (StringUtils.hasText(r2dbcProperties.getUsername())) {
+                    options.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+                }
+                if (StringUtils.hasText(r2dbcProperties.getPassword())) {
+                    options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+                }
+                r2dbcProperties.getProperties().forEach((key, value) -> options.option(Option.valueOf(key), value));
+            })
+            .build();
+    }
+
+    @Bean
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new RoutingR2dbcTransactionManager(connectionFactory);
+    }
+
     // LocalDateTime seems to be the only type that is supported across all drivers atm
     // See https://github.com/r2dbc/r2dbc-h2/pull/139 https://github.com/mirromutth/r2dbc-mysql/issues/105
     @Bean
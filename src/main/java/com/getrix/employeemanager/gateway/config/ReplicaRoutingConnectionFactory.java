@@ -0,0 +1,184 @@
+package com.getrix.employeemanager.gateway.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes the connections of the read-only transactions to the healthy replicas, in turn, and all the others to the
+ * primary database.
+ * <p>
+ * The replicas are checked every {@code health-check-period}: a replica is healthy when it answers the
+ * {@code lag-query} - which returns its replication lag in seconds - within the period, with a lag up to
+ * {@code max-lag}. Without a lag query, a replica is healthy as long as it answers. When no replica is healthy, the
+ * read-only transactions fall back to the primary.
+ * <p>
+ * The routing decisions are exported as the {@code database.routing} meter tagged with
+ * {@code route=primary|replica|fallback}, and the number of healthy replicas as the {@code database.replicas.healthy}
+ * gauge.
+ */
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements SmartLifecycle {
+
+    public static final String REPLICA_PREFIX = "replica-";
+
+    private static final String PRIMARY = ConnectionPools.PRIMARY;
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingConnectionFactory.class);
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final ApplicationProperties.Database.Replicas properties;
+
+    private final Counter primaryRoutes;
+
+    private final Counter replicaRoutes;
+
+    private final Counter fallbackRoutes;
+
+    private Disposable healthChecks;
+
+    public ReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        List<ConnectionFactory> replicaFactories,
+        ApplicationProperties.Database.Replicas properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        Map<String, ConnectionFactory> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaFactories.size(); i++) {
+            Replica replica = new Replica(REPLICA_PREFIX + i, replicaFactories.get(i));
+            replicas.add(replica);
+            targets.put(replica.name, replica.connectionFactory);
+        }
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(primary);
+        this.primaryRoutes = routesCounter("primary").register(meterRegistry);
+        this.replicaRoutes = routesCounter("replica").register(meterRegistry);
+        this.fallbackRoutes = routesCounter("fallback").register(meterRegistry);
+        Gauge
+            .builder("database.replicas.healthy", replicas, all -> all.stream().filter(replica -> replica.healthy).count())
+            .description("The number of replicas receiving the read-only transactions")
+            .register(meterRegistry);
+    }
+
+    private static Counter.Builder routesCounter(String route) {
+        return Counter.builder("database.routing").description("The connections routed to the databases").tag("route", route);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .map(TransactionSynchronizationManager::isCurrentTransactionReadOnly)
+            .onErrorResume(NoTransactionException.class, e -> Mono.just(false))
+            .map(readOnly -> readOnly ? nextHealthyReplica() : route(primaryRoutes));
+    }
+
+    private String nextHealthyReplica() {
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.healthy) {
+                replicaRoutes.increment();
+                return replica.name;
+            }
+        }
+        return route(fallbackRoutes);
+    }
+
+    private static String route(Counter routes) {
+        routes.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Check all the replicas at once.
+     * @return a {@link Mono} completing once the health of all the replicas is updated.
+     */
+    Mono<Void> checkReplicas() {
+        return Flux.fromIterable(replicas).flatMap(this::checkReplica).then();
+    }
+
+    private Mono<Boolean> checkReplica(Replica replica) {
+        String query = properties.getLagQuery() != null ? properties.getLagQuery() : "SELECT 0";
+        return Mono
+            .usingWhen(
+                replica.connectionFactory.create(),
+                connection ->
+                    Flux
+                        .from(connection.createStatement(query).execute())
+                        .concatMap(result -> result.map((row, metadata) -> Optional.ofNullable(row.get(0, Number.class))))
+                        .next(),
+                Connection::close
+            )
+            .timeout(properties.getHealthCheckPeriod())
+            .map(lag -> lag.isPresent() && lag.get().doubleValue() <= properties.getMaxLag().toMillis() / 1000.0)
+            .defaultIfEmpty(false)
+            .onErrorResume(e -> {
+                log.debug("Health check of the database {} failed", replica.name, e);
+                return Mono.just(false);
+            })
+            .doOnNext(healthy -> {
+                if (healthy != replica.healthy) {
+                    log.warn("Database {} is now {}", replica.name, healthy ? "healthy" : "unhealthy, or lagging");
+                }
+                replica.healthy = healthy;
+            });
+    }
+
+    @Override
+    public void start() {
+        healthChecks =
+            Flux
+                .interval(Duration.ZERO, properties.getHealthCheckPeriod())
+                .onBackpressureDrop()
+                .concatMap(tick -> checkReplicas())
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        healthChecks.dispose();
+        healthChecks = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return healthChecks != null;
+    }
+
+    private static class Replica {
+
+        private final String name;
+
+        private final ConnectionFactory connectionFactory;
+
+        private volatile boolean healthy;
+
+        Replica(String name, ConnectionFactory connectionFactory) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+        }
+    }
+}
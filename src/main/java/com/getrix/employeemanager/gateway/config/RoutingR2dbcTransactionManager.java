@@ -0,0 +1,28 @@
+package com.getrix.employeemanager.gateway.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link R2dbcTransactionManager} flagging the read-only transactions before opening their connection, rather than
+ * after, so that the {@link ReplicaRoutingConnectionFactory} routes it to a replica.
+ */
+public class RoutingR2dbcTransactionManager extends R2dbcTransactionManager {
+
+    public RoutingR2dbcTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(
+        TransactionSynchronizationManager synchronizationManager,
+        Object transaction,
+        TransactionDefinition definition
+    ) {
+        synchronizationManager.setCurrentTransactionReadOnly(definition.isReadOnly());
+        return super.doBegin(synchronizationManager, transaction, definition);
+    }
+}
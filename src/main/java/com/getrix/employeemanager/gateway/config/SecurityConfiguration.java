@@ -3,8 +3,13 @@ package com.getrix.employeemanager.gateway.config;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
 import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import com.getrix.employeemanager.gateway.security.PasswordHashCalibrator;
+import com.getrix.employeemanager.gateway.security.PasswordHashingScheduler;
+import com.getrix.employeemanager.gateway.security.RehashingPasswordEncoder;
 import com.getrix.employeemanager.gateway.security.jwt.JWTFilter;
 import com.getrix.employeemanager.gateway.security.jwt.TokenProvider;
+import com.getrix.employeemanager.gateway.security.jwt.TokenRevocationStore;
+import com.getrix.employeemanager.gateway.security.jwt.VerifiedTokenCache;
 import com.getrix.employeemanager.gateway.web.filter.SpaWebFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
@@ -15,8 +20,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.header.ReferrerPolicyServerHttpHeadersWriter;
@@ -33,27 +38,51 @@ public class SecurityConfiguration {
 
     private final JHipsterProperties jHipsterProperties;
 
+    private final ApplicationProperties applicationProperties;
+
     private final ReactiveUserDetailsService userDetailsService;
 
+    private final ReactiveUserDetailsPasswordService userDetailsPasswordService;
+
     private final TokenProvider tokenProvider;
 
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
     private final SecurityProblemSupport problemSupport;
 
     public SecurityConfiguration(
         ReactiveUserDetailsService userDetailsService,
+        ReactiveUserDetailsPasswordService userDetailsPasswordService,
         TokenProvider tokenProvider,
+        VerifiedTokenCache verifiedTokenCache,
+        TokenRevocationStore tokenRevocationStore,
+        PasswordHashingScheduler passwordHashingScheduler,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
         SecurityProblemSupport problemSupport
     ) {
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
         this.tokenProvider = tokenProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.passwordHashingScheduler = passwordHashingScheduler;
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
         this.problemSupport = problemSupport;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        ApplicationProperties.Security.PasswordHashing passwordHashing = applicationProperties.getSecurity().getPasswordHashing();
+        int strength = passwordHashing.isCalibrate()
+            ? PasswordHashCalibrator.calibrate(passwordHashing.getTargetLatency())
+            : passwordHashing.getStrength();
+        return new RehashingPasswordEncoder(strength);
     }
 
     @Bean
@@ -62,7 +91,9 @@ public class SecurityConfiguration {
             userDetailsService
         );
         authenticationManager.setPasswordEncoder(passwordEncoder());
-        return authenticationManager;
+        authenticationManager.setUserDetailsPasswordService(userDetailsPasswordService);
+        authenticationManager.setScheduler(passwordHashingScheduler.getScheduler());
+        return authentication -> passwordHashingScheduler.onRejection(authenticationManager.authenticate(authentication));
     }
 
     @Bean
@@ -76,7 +107,7 @@ public class SecurityConfiguration {
             .csrf()
                 .disable()
             .addFilterAt(new SpaWebFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
-            .addFilterAt(new JWTFilter(tokenProvider), SecurityWebFiltersOrder.HTTP_BASIC)
+            .addFilterAt(new JWTFilter(tokenProvider, verifiedTokenCache, tokenRevocationStore), SecurityWebFiltersOrder.HTTP_BASIC)
             .authenticationManager(reactiveAuthenticationManager())
             .exceptionHandling()
                 .accessDeniedHandler(problemSupport)
@@ -94,7 +125,9 @@ public class SecurityConfiguration {
             .authorizeExchange()
             .pathMatchers("/").permitAll()
             .pathMatchers("/*.*").permitAll()
+            .pathMatchers("/.well-known/jwks.json").permitAll()
             .pathMatchers("/api/authenticate").permitAll()
+            .pathMatchers("/api/authenticate/refresh").permitAll()
             .pathMatchers("/api/register").permitAll()
             .pathMatchers("/api/activate").permitAll()
             .pathMatchers("/api/account/reset-password/init").permitAll()
@@ -0,0 +1,146 @@
+package com.getrix.employeemanager.gateway.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A refresh token, exchanged for a new access token without checking the password of the user.
+ * <p>
+ * Only the SHA-256 hash of the opaque token is stored. Each token can be used once: using it issues the next token of
+ * the same family, and using it again revokes the whole family.
+ */
+@Table("jhi_refresh_token")
+public class RefreshToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @NotNull
+    @Size(min = 64, max = 64)
+    @Column("token_hash")
+    private String tokenHash;
+
+    @NotNull
+    @Size(max = 36)
+    @Column("family_id")
+    private String familyId;
+
+    @NotNull
+    @Column("user_id")
+    private Long userId;
+
+    @Column("remember_me")
+    private boolean rememberMe;
+
+    private boolean used;
+
+    @NotNull
+    @Column("issued_at")
+    private Instant issuedAt;
+
+    @NotNull
+    @Column("expires_at")
+    private Instant expiresAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public boolean isRememberMe() {
+        return rememberMe;
+    }
+
+    public void setRememberMe(boolean rememberMe) {
+        this.rememberMe = rememberMe;
+    }
+
+    public boolean isUsed() {
+        return used;
+    }
+
+    public void setUsed(boolean used) {
+        this.used = used;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(Instant issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshToken)) {
+            return false;
+        }
+        return id != null && id.equals(((RefreshToken) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+            "id=" + id +
+            ", familyId='" + familyId + '\'' +
+            ", userId=" + userId +
+            ", rememberMe=" + rememberMe +
+            ", used=" + used +
+            ", issuedAt=" + issuedAt +
+            ", expiresAt=" + expiresAt +
+            "}";
+    }
+}
@@ -5,6 +5,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -24,7 +26,7 @@ import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
-import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
@@ -40,6 +42,14 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    /**
+     * The most parameters bound to a multi-row statement: far within the 65,535 PostgreSQL allows, and few enough for
+     * binding them to stay cheap, as {@link DatabaseClient} copies all the bindings made so far on each bind.
+     */
+    public static final int MAX_BIND_PARAMETERS = 7500;
+
+    private static final int MAX_INSERTED_LINKS = MAX_BIND_PARAMETERS / 2;
+
     public static class LinkTable {
 
         final String tableName;
@@ -192,23 +202,120 @@ public class EntityManager {
      * @return the number of inserted rows.
      */
     public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap((Long referenceId) -> {
-                        StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                            .getDataAccessStrategy()
-                            .getStatementMapper()
-                            .createInsert(table.tableName)
-                            .withColumn(table.idColumn, Parameter.from(entityId))
-                            .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(insert)).fetch().rowsUpdated();
-                    })
-                    .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
-            );
+        List<Long> ids = referencedIds.collect(Collectors.toList());
+        return deleteFromLinkTable(table, entityId).then(Mono.defer(() -> insertIntoLinkTable(table, entityId, ids)));
+    }
+
+    /**
+     * Inserts the links between the entity and the referred entities, with a single multi-row statement.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are created.
+     * @param referencedIds the id of the referred entities, which must not be linked yet.
+     * @return the number of inserted rows.
+     */
+    public Mono<Integer> insertIntoLinkTable(LinkTable table, Long entityId, Collection<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        if (referencedIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        String sql =
+            "INSERT INTO " +
+            table.tableName +
+            " (" +
+            table.idColumn +
+            ", " +
+            table.referenceColumn +
+            ") VALUES " +
+            createLinkValues(referencedIds.size());
+        return bindLinkValues(r2dbcEntityTemplate.getDatabaseClient().sql(sql), entityId, referencedIds).fetch().rowsUpdated();
+    }
+
+    /**
+     * Inserts the links between many entities and their referred entities, with a multi-row statement per
+     * {@value #MAX_INSERTED_LINKS} links.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param referencedIds the id of the referred entities, which must not be linked yet, by id of entity.
+     * @return the number of inserted rows.
+     */
+    public Mono<Integer> insertIntoLinkTable(LinkTable table, Map<Long, ? extends Collection<?>> referencedIds) {
+        List<Object[]> links = new ArrayList<>();
+        referencedIds.forEach((entityId, ids) -> ids.forEach(referenceId -> links.add(new Object[] { entityId, referenceId })));
+        if (links.isEmpty()) {
+            return Mono.just(0);
+        }
+        if (links.size() > MAX_INSERTED_LINKS) {
+            return Flux
+                .fromIterable(links)
+                .buffer(MAX_INSERTED_LINKS)
+                .concatMap(batch -> insertLinks(table, batch))
+                .reduce(0, Integer::sum);
+        }
+        return insertLinks(table, links);
+    }
+
+    private Mono<Integer> insertLinks(LinkTable table, List<Object[]> links) {
+        String sql =
+            "INSERT INTO " +
+            table.tableName +
+            " (" +
+            table.idColumn +
+            ", " +
+            table.referenceColumn +
+            ") VALUES " +
+            IntStream.range(0, links.size()).mapToObj(i -> "(:entityId" + i + ", :referenceId" + i + ")").collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec statement = r2dbcEntityTemplate.getDatabaseClient().sql(sql);
+        for (int i = 0; i < links.size(); i++) {
+            statement = statement.bind("entityId" + i, links.get(i)[0]).bind("referenceId" + i, links.get(i)[1]);
+        }
+        return statement.fetch().rowsUpdated();
+    }
+
+    /**
+     * Updates the table, which links the entity with the referred entities, by only deleting the links which are not
+     * referenced anymore and inserting the missing ones: two statements, whatever the number of links.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are updated.
+     * @param referencedIds the id of all the referred entities.
+     * @return the number of deleted and inserted rows.
+     */
+    public Mono<Integer> syncLinkTable(LinkTable table, Long entityId, Collection<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        if (referencedIds.isEmpty()) {
+            return deleteAllFromLinkTable(table, entityId);
+        }
+        DatabaseClient db = r2dbcEntityTemplate.getDatabaseClient();
+        Mono<Integer> deleted = db
+            .sql(
+                "DELETE FROM " +
+                table.tableName +
+                " WHERE " +
+                table.idColumn +
+                " = :entityId AND " +
+                table.referenceColumn +
+                " NOT IN (:referenceIds)"
+            )
+            .bind("entityId", entityId)
+            .bind("referenceIds", referencedIds)
+            .fetch()
+            .rowsUpdated();
+        String insert =
+            "INSERT INTO " +
+            table.tableName +
+            " (" +
+            table.idColumn +
+            ", " +
+            table.referenceColumn +
+            ") SELECT v.id, v.reference_id FROM (VALUES " +
+            createLinkValues(referencedIds.size()) +
+            ") AS v(id, reference_id) WHERE NOT EXISTS (SELECT 1 FROM " +
+            table.tableName +
+            " l WHERE l." +
+            table.idColumn +
+            " = v.id AND l." +
+            table.referenceColumn +
+            " = v.reference_id)";
+        Mono<Integer> inserted = bindLinkValues(db.sql(insert), entityId, referencedIds).fetch().rowsUpdated();
+        return deleted.flatMap(deletedCount -> inserted.map(insertedCount -> deletedCount + insertedCount));
     }
 
     public Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId) {
@@ -221,6 +328,30 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
     }
 
+    private Mono<Integer> deleteAllFromLinkTable(LinkTable table, Long entityId) {
+        StatementMapper.DeleteSpec deleteSpec = statementMapper
+            .createDelete(table.tableName)
+            .withCriteria(Criteria.from(Criteria.where(table.idColumn).is(entityId)));
+        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).fetch().rowsUpdated();
+    }
+
+    private static String createLinkValues(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "(:entityId, :referenceId" + i + ")").collect(Collectors.joining(", "));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindLinkValues(
+        DatabaseClient.GenericExecuteSpec statement,
+        Long entityId,
+        Collection<?> referencedIds
+    ) {
+        statement = statement.bind("entityId", entityId);
+        int i = 0;
+        for (Object referenceId : referencedIds) {
+            statement = statement.bind("referenceId" + i++, referenceId);
+        }
+        return statement;
+    }
+
     private static Collection<? extends OrderByField> createOrderByFields(Table table, Sort sortToUse) {
         List<OrderByField> fields = new ArrayList<>();
 
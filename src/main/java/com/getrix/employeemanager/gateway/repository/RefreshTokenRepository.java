@@ -0,0 +1,36 @@
+package com.getrix.employeemanager.gateway.repository;
+
+import com.getrix.employeemanager.gateway.domain.RefreshToken;
+import java.time.LocalDateTime;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends R2dbcRepository<RefreshToken, Long> {
+    Mono<RefreshToken> findOneByTokenHash(String tokenHash);
+
+    /**
+     * Mark a token as used, unless it already was: the number of updated rows tells which request used it first.
+     */
+    @Modifying
+    @Query("UPDATE jhi_refresh_token SET used = TRUE WHERE id = :id AND used = FALSE")
+    Mono<Integer> markUsed(Long id);
+
+    @Modifying
+    @Query("UPDATE jhi_refresh_token SET used = TRUE WHERE family_id = :familyId")
+    Mono<Integer> markFamilyUsed(String familyId);
+
+    @Modifying
+    @Query("UPDATE jhi_refresh_token SET used = TRUE WHERE user_id = :userId AND used = FALSE")
+    Mono<Integer> markAllUsedByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM jhi_refresh_token WHERE expires_at < :dateTime")
+    Mono<Integer> deleteAllByExpiresAtBefore(LocalDateTime dateTime);
+}
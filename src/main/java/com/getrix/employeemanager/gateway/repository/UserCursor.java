@@ -0,0 +1,128 @@
+package com.getrix.employeemanager.gateway.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A position in the {@link com.getrix.employeemanager.gateway.domain.User users} sorted by a unique key, used to seek
+ * the next page instead of skipping the previous ones.
+ * <p>
+ * Only the unique non-null columns can be sorted on, as a comparison never matches a {@code NULL}: {@code id} and
+ * {@code login}. The cursor is handed to the clients as an opaque string, which carries its sort along with the last
+ * key read.
+ */
+public final class UserCursor {
+
+    public static final List<String> SORTABLE_PROPERTIES = List.of("id", "login");
+
+    private static final String SEPARATOR = ",";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    /**
+     * The value of the sorted property of the last user read, the id or the login.
+     */
+    private final String lastKey;
+
+    private UserCursor(String property, Sort.Direction direction, String lastKey) {
+        this.property = property;
+        this.direction = direction;
+        this.lastKey = lastKey;
+    }
+
+    /**
+     * Create the cursor of the first page.
+     *
+     * @param sort a sort on a single {@link #SORTABLE_PROPERTIES sortable property}, optionally followed by the id in
+     * the same direction - which breaks no ties, as the logins are unique - or no sort at all for the id order.
+     * @return the cursor before the first user.
+     * @throws IllegalArgumentException if the users cannot be walked in this order.
+     */
+    public static UserCursor first(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return new UserCursor("id", Sort.Direction.ASC, null);
+        }
+        Sort.Order order = orders.next();
+        if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Cannot walk the users by " + order.getProperty());
+        }
+        if (orders.hasNext()) {
+            Sort.Order tieBreaker = orders.next();
+            if (orders.hasNext() || !"id".equals(tieBreaker.getProperty()) || tieBreaker.getDirection() != order.getDirection()) {
+                throw new IllegalArgumentException("Cannot walk the users by " + sort);
+            }
+        }
+        return new UserCursor(order.getProperty(), order.getDirection(), null);
+    }
+
+    /**
+     * Decode a cursor previously returned by {@link #encode()}.
+     *
+     * @param cursor the opaque cursor.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static UserCursor decode(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length != 3 || !SORTABLE_PROPERTIES.contains(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            if ("id".equals(parts[0])) {
+                Long.parseLong(parts[2]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        return new UserCursor(parts[0], Sort.Direction.fromString(parts[1]), parts[2]);
+    }
+
+    /**
+     * @param id the id of the last user of a page.
+     * @param login the login of the last user of a page.
+     * @return the cursor of the page following this user.
+     */
+    public UserCursor after(Long id, String login) {
+        return new UserCursor(property, direction, "id".equals(property) ? String.valueOf(id) : login);
+    }
+
+    public String encode() {
+        String cursor = String.join(SEPARATOR, property, direction.name(), lastKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return true if this is the cursor of the first page.
+     */
+    public boolean isFirst() {
+        return lastKey == null;
+    }
+
+    /**
+     * @return the id of the last user read, when sorted by id.
+     */
+    public Long getLastId() {
+        return Long.valueOf(lastKey);
+    }
+
+    /**
+     * @return the login of the last user read, when sorted by login.
+     */
+    public String getLastLogin() {
+        return lastKey;
+    }
+}
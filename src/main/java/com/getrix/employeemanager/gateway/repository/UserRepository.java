@@ -5,24 +5,47 @@ import static org.springframework.data.relational.core.query.Query.query;
 
 import com.getrix.employeemanager.gateway.domain.Authority;
 import com.getrix.employeemanager.gateway.domain.User;
+import com.getrix.employeemanager.gateway.repository.rowmapper.UserRowMapper;
+import com.hazelcast.map.IMap;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
 import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.repository.query.Param;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
@@ -33,6 +56,10 @@ import reactor.util.function.Tuples;
  */
 @Repository
 public interface UserRepository extends R2dbcRepository<User, Long>, UserRepositoryInternal {
+    String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
     Mono<User> findOneByActivationKey(String activationKey);
 
     Flux<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(LocalDateTime dateTime);
@@ -49,6 +76,10 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 
     Mono<Long> count();
 
+    @Modifying
+    @Query("UPDATE jhi_user SET password_hash = :passwordHash WHERE login = :login")
+    Mono<Integer> updatePasswordHash(@Param("login") String login, @Param("passwordHash") String passwordHash);
+
     @Query("INSERT INTO jhi_user_authority VALUES(:userId, :authority)")
     Mono<Void> saveUserAuthority(Long userId, String authority);
 
@@ -68,55 +99,230 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
 
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
+    Mono<User> findOneWithAuthoritiesById(Long id);
+
     Flux<User> findAllWithAuthorities(Pageable pageable);
+
+    Flux<User> findAllWithAuthorities(UserCursor cursor, int size);
+
+    Flux<User> findAllByActivatedIsTrue(UserCursor cursor, int size);
+
+    Flux<User> findAllWithAuthoritiesModifiedSince(LocalDateTime dateTime);
+
+    Mono<Long> estimateCount();
+
+    Mono<Void> clearUserCaches(User user);
+
+    Mono<Void> clearUserCaches(Collection<User> users);
+
+    Flux<User> findNotActivatedUsersCreatedBefore(LocalDateTime dateTime, Long afterId, int size);
+
+    Mono<Integer> deleteNotActivatedUsers(Collection<Long> ids);
+
+    Flux<String> findExistingLogins(Collection<String> logins);
+
+    Flux<String> findExistingEmails(Collection<String> emails);
+
+    Mono<Integer> insertUsersWithAuthorities(List<User> users);
+
+    Mono<Integer> saveUserAuthorities(Long userId, Collection<String> authorities);
+
+    Mono<Integer> updateUserAuthorities(Long userId, Collection<String> authorities);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    private static final String AUTHORITY_SEPARATOR = ",";
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * The columns written by a user insert, along with their types to bind the null values.
+     */
+    private static final String[] INSERTED_COLUMNS = {
+        "login",
+        "password_hash",
+        "first_name",
+        "last_name",
+        "email",
+        "image_url",
+        "activated",
+        "lang_key",
+        "activation_key",
+        "reset_key",
+        "created_by",
+        "created_date",
+        "reset_date",
+        "last_modified_by",
+        "last_modified_date",
+    };
+
+    private static final Class<?>[] INSERTED_TYPES = {
+        String.class,
+        String.class,
+        String.class,
+        String.class,
+        String.class,
+        String.class,
+        Boolean.class,
+        String.class,
+        String.class,
+        String.class,
+        String.class,
+        LocalDateTime.class,
+        LocalDateTime.class,
+        String.class,
+        LocalDateTime.class,
+    };
+
+    private static final int MAX_INSERTED_USERS = EntityManager.MAX_BIND_PARAMETERS / INSERTED_COLUMNS.length;
+
+    private static final EntityManager.LinkTable USER_AUTHORITY_LINK = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
+
+    /**
+     * The columns of the user "e", aliased for the {@link UserRowMapper}.
+     */
+    private static final String USER_COLUMNS = UserSqlHelper.getColumnList(EntityManager.ENTITY_ALIAS, EntityManager.ENTITY_ALIAS);
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
+    private final EntityManager entityManager;
+    private final UserRowMapper userMapper;
 
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    /**
+     * The authority names of the user "e", aggregated in a single column so that each user is read from a single row.
+     */
+    private final String authoritiesColumn;
+
+    /**
+     * The users with their authorities, by login and by email, read and written through the asynchronous Hazelcast
+     * API so that a lookup never blocks the calling thread. Only the users found are cached.
+     */
+    private final IMap<String, User> usersByLogin;
+
+    private final IMap<String, User> usersByEmail;
+
+    /**
+     * Reads the users missing from the caches from the primary database, in a transaction of their own: a read-only
+     * transaction may be routed to a replica, whose users lag behind - and would stay cached with their previous
+     * password, or still activated.
+     */
+    private final TransactionalOperator primaryReads;
+
+    public UserRepositoryInternalImpl(
+        DatabaseClient db,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcConverter r2dbcConverter,
+        EntityManager entityManager,
+        UserRowMapper userMapper,
+        CacheManager cacheManager,
+        ReactiveTransactionManager transactionManager
+    ) {
         this.db = db;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.r2dbcConverter = r2dbcConverter;
+        this.entityManager = entityManager;
+        this.userMapper = userMapper;
+        this.authoritiesColumn =
+            "(SELECT " +
+            authorityNamesAggregate(DialectResolver.getDialect(db.getConnectionFactory())) +
+            " FROM jhi_user_authority ua WHERE ua.user_id = e.id) AS authorities";
+        this.usersByLogin = nativeCache(cacheManager, UserRepository.USERS_BY_LOGIN_CACHE);
+        this.usersByEmail = nativeCache(cacheManager, UserRepository.USERS_BY_EMAIL_CACHE);
+        this.primaryReads =
+            TransactionalOperator.create(
+                transactionManager,
+                new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW)
+            );
     }
 
     @Override
     public Mono<User> findOneWithAuthoritiesByLogin(String login) {
-        return findOneWithAuthoritiesBy("login", login);
+        return cached(usersByLogin, login, () -> findOneWithAuthoritiesBy("login", login));
     }
 
     @Override
     public Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email) {
-        return findOneWithAuthoritiesBy("email", email.toLowerCase());
+        String lowercaseEmail = email.toLowerCase();
+        return cached(usersByEmail, lowercaseEmail, () -> findOneWithAuthoritiesBy("email", lowercaseEmail));
     }
 
     @Override
-    public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+    public Mono<User> findOneWithAuthoritiesById(Long id) {
+        return findOneWithAuthoritiesBy("id", id);
+    }
 
-        return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
+    @Override
+    public Flux<User> findAllWithAuthorities(Pageable pageable) {
+        // the page is selected and sorted by the database, the id breaking ties so that pages do not overlap
+        Sort sort = pageable.getSort().getOrderFor("id") != null ? pageable.getSort() : pageable.getSort().and(Sort.by("id"));
+        RelationalPersistentEntity<?> entity = r2dbcConverter.getMappingContext().getRequiredPersistentEntity(User.class);
+        String orderBy = sort
+            .stream()
+            .map(order ->
+                "e." +
+                entity.getRequiredPersistentProperty(order.getProperty()).getColumnName().toSql(IdentifierProcessing.NONE) +
+                " " +
+                order.getDirection().name()
             )
-            .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
+            .collect(Collectors.joining(", "));
+        return db
+            .sql(
+                "SELECT " + USER_COLUMNS + ", " + authoritiesColumn + " FROM jhi_user e ORDER BY " + orderBy + " LIMIT :size OFFSET :offset"
             )
-            .skip(page * size)
-            .take(size);
+            .bind("size", pageable.getPageSize())
+            .bind("offset", pageable.getOffset())
+            .map(this::readUserWithAuthorities)
+            .all();
+    }
+
+    @Override
+    public Flux<User> findAllWithAuthorities(UserCursor cursor, int size) {
+        return findAllAfter(cursor, size, false);
+    }
+
+    @Override
+    public Flux<User> findAllByActivatedIsTrue(UserCursor cursor, int size) {
+        return findAllAfter(cursor, size, true);
+    }
+
+    /**
+     * Stream the users by id, with a single statement whose rows are fetched by batches of {@value #STREAM_FETCH_SIZE}
+     * as they are consumed, rather than all at once.
+     *
+     * @param dateTime the earliest last modification of the users, or null for all the users.
+     * @return the users with their authorities.
+     */
+    @Override
+    public Flux<User> findAllWithAuthoritiesModifiedSince(LocalDateTime dateTime) {
+        String sql =
+            "SELECT " +
+            USER_COLUMNS +
+            ", " +
+            authoritiesColumn +
+            " FROM jhi_user e" +
+            (dateTime != null ? " WHERE e.last_modified_date >= :dateTime" : "") +
+            " ORDER BY e.id";
+        DatabaseClient.GenericExecuteSpec statement = db.sql(sql).filter(s -> s.fetchSize(STREAM_FETCH_SIZE));
+        if (dateTime != null) {
+            statement = statement.bind("dateTime", dateTime);
+        }
+        return statement.map(this::readUserWithAuthorities).all();
+    }
+
+    /**
+     * Read the number of users estimated by the PostgreSQL planner, from the statistics of the last {@code ANALYZE}
+     * rather than by counting all the rows.
+     * @return the estimate, negative - or 0 before PostgreSQL 14 - until the table is first analyzed.
+     */
+    @Override
+    public Mono<Long> estimateCount() {
+        return db.sql("SELECT reltuples::bigint FROM pg_class WHERE oid = 'jhi_user'::regclass").map(row -> row.get(0, Long.class)).one();
     }
 
     @Override
@@ -128,32 +334,244 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .then(r2dbcEntityTemplate.delete(User.class).matching(query(where("id").is(user.getId()))).all().then());
     }
 
-    private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
+    @Override
+    public Mono<Void> clearUserCaches(User user) {
+        Mono<User> evictByLogin = Mono.fromCompletionStage(usersByLogin.removeAsync(user.getLogin()));
+        if (user.getEmail() == null) {
+            return evictByLogin.then();
+        }
+        return evictByLogin.then(Mono.fromCompletionStage(usersByEmail.removeAsync(user.getEmail().toLowerCase()))).then();
+    }
+
+    @Override
+    public Mono<Void> clearUserCaches(Collection<User> users) {
+        // the evictions are all sent at once, rather than waiting for each one in turn
+        return Flux.fromIterable(users).flatMap(this::clearUserCaches, users.size() + 1).then();
+    }
+
+    @Override
+    public Flux<User> findNotActivatedUsersCreatedBefore(LocalDateTime dateTime, Long afterId, int size) {
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
-            .bind(fieldName, fieldValue)
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
+            .sql(
+                "SELECT * FROM jhi_user WHERE activated = FALSE AND activation_key IS NOT NULL AND created_date < :dateTime" +
+                " AND id > :afterId ORDER BY id LIMIT :size"
             )
+            .bind("dateTime", dateTime)
+            .bind("afterId", afterId)
+            .bind("size", size)
+            .map((row, metadata) -> r2dbcConverter.read(User.class, row, metadata))
+            .all();
+    }
+
+    @Override
+    public Mono<Integer> deleteNotActivatedUsers(Collection<Long> ids) {
+        // the users activated in the meantime are kept, along with their authorities
+        Mono<Integer> deleteAuthorities = db
+            .sql("DELETE FROM jhi_user_authority WHERE user_id IN (SELECT id FROM jhi_user WHERE id IN (:ids) AND activated = FALSE)")
+            .bind("ids", ids)
+            .fetch()
+            .rowsUpdated();
+        Mono<Integer> deleteUsers = db
+            .sql("DELETE FROM jhi_user WHERE id IN (:ids) AND activated = FALSE")
+            .bind("ids", ids)
+            .fetch()
+            .rowsUpdated();
+        return deleteAuthorities.then(deleteUsers);
+    }
+
+    @Override
+    public Flux<String> findExistingLogins(Collection<String> logins) {
+        if (logins.isEmpty()) {
+            return Flux.empty();
+        }
+        return db
+            .sql("SELECT login FROM jhi_user WHERE login IN (:logins)")
+            .bind("logins", logins)
+            .map(row -> row.get(0, String.class))
+            .all();
+    }
+
+    @Override
+    public Flux<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Flux.empty();
+        }
+        return db
+            .sql("SELECT LOWER(email) FROM jhi_user WHERE LOWER(email) IN (:emails)")
+            .bind("emails", emails)
+            .map(row -> row.get(0, String.class))
+            .all();
+    }
+
+    /**
+     * Insert new users, and link them to their authorities, with three statements per batch of users small enough to
+     * stay within the {@link EntityManager#MAX_BIND_PARAMETERS} of a statement: a multi-row insert of the users, a
+     * select of their generated ids by login, and a multi-row insert of their links.
+     *
+     * @param users the users to insert, whose ids are set once inserted.
+     * @return the number of inserted users.
+     */
+    @Override
+    public Mono<Integer> insertUsersWithAuthorities(List<User> users) {
+        if (users.isEmpty()) {
+            return Mono.just(0);
+        }
+        if (users.size() > MAX_INSERTED_USERS) {
+            return Flux.fromIterable(users).buffer(MAX_INSERTED_USERS).concatMap(this::insertUsersWithAuthorities).reduce(0, Integer::sum);
+        }
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            int row = i;
+            rows.add(Arrays.stream(INSERTED_COLUMNS).map(column -> ":" + column + row).collect(Collectors.joining(", ", "(", ")")));
+        }
+        String sql = "INSERT INTO jhi_user (" + String.join(", ", INSERTED_COLUMNS) + ") VALUES " + String.join(", ", rows);
+        DatabaseClient.GenericExecuteSpec insert = db.sql(sql);
+        for (int i = 0; i < users.size(); i++) {
+            Object[] values = insertedValues(users.get(i));
+            for (int column = 0; column < INSERTED_COLUMNS.length; column++) {
+                String name = INSERTED_COLUMNS[column] + i;
+                insert = values[column] != null ? insert.bind(name, values[column]) : insert.bindNull(name, INSERTED_TYPES[column]);
+            }
+        }
+        List<String> logins = users.stream().map(User::getLogin).collect(Collectors.toList());
+        Mono<Map<String, Long>> ids = db
+            .sql("SELECT id, login FROM jhi_user WHERE login IN (:logins)")
+            .bind("logins", logins)
+            .map(row -> Tuples.of(row.get("login", String.class), row.get("id", Long.class)))
             .all()
-            .collectList()
-            .filter(l -> !l.isEmpty())
-            .map(l -> updateUserWithAuthorities(l.get(0).getT1(), l));
-    }
-
-    private User updateUserWithAuthorities(User user, List<Tuple2<User, Optional<String>>> tuples) {
-        user.setAuthorities(
-            tuples
-                .stream()
-                .filter(t -> t.getT2().isPresent())
-                .map(t -> {
-                    Authority authority = new Authority();
-                    authority.setName(t.getT2().get());
-                    return authority;
+            .collectMap(Tuple2::getT1, Tuple2::getT2);
+        return insert
+            .fetch()
+            .rowsUpdated()
+            .flatMap(inserted ->
+                ids.flatMap(idsByLogin -> {
+                    Map<Long, List<String>> authorities = new HashMap<>();
+                    for (User user : users) {
+                        user.setId(idsByLogin.get(user.getLogin()));
+                        authorities.put(user.getId(), user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toList()));
+                    }
+                    return entityManager.insertIntoLinkTable(USER_AUTHORITY_LINK, authorities).thenReturn(inserted);
                 })
-                .collect(Collectors.toSet())
-        );
+            );
+    }
+
+    private static Object[] insertedValues(User user) {
+        return new Object[] {
+            user.getLogin(),
+            user.getPassword(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getEmail(),
+            user.getImageUrl(),
+            user.isActivated(),
+            user.getLangKey(),
+            user.getActivationKey(),
+            user.getResetKey(),
+            user.getCreatedBy(),
+            toLocalDateTime(user.getCreatedDate()),
+            toLocalDateTime(user.getResetDate()),
+            user.getLastModifiedBy(),
+            toLocalDateTime(user.getLastModifiedDate()),
+        };
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneOffset.UTC) : null;
+    }
+
+    @Override
+    public Mono<Integer> saveUserAuthorities(Long userId, Collection<String> authorities) {
+        return entityManager.insertIntoLinkTable(USER_AUTHORITY_LINK, userId, authorities);
+    }
+
+    @Override
+    public Mono<Integer> updateUserAuthorities(Long userId, Collection<String> authorities) {
+        return entityManager.syncLinkTable(USER_AUTHORITY_LINK, userId, authorities);
+    }
+
+    private Mono<User> cached(IMap<String, User> cache, String key, Supplier<Mono<User>> loader) {
+        return Mono
+            .fromCompletionStage(cache.getAsync(key))
+            .switchIfEmpty(
+                Mono.defer(() ->
+                    loader
+                        .get()
+                        .as(primaryReads::transactional)
+                        .flatMap(user -> Mono.fromCompletionStage(cache.setAsync(key, user)).thenReturn(user))
+                )
+            );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IMap<String, User> nativeCache(CacheManager cacheManager, String name) {
+        return (IMap<String, User>) Objects.requireNonNull(cacheManager.getCache(name)).getNativeCache();
+    }
+
+    private static String authorityNamesAggregate(R2dbcDialect dialect) {
+        // the H2 dialect extends the PostgreSQL one, and LISTAGG is the standard spelling of string_agg
+        if (dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect)) {
+            return "string_agg(ua.authority_name, '" + AUTHORITY_SEPARATOR + "')";
+        }
+        return "LISTAGG(ua.authority_name, '" + AUTHORITY_SEPARATOR + "')";
+    }
+
+    private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
+        return db
+            .sql("SELECT " + USER_COLUMNS + ", " + authoritiesColumn + " FROM jhi_user e WHERE e." + fieldName + " = :" + fieldName)
+            .bind(fieldName, fieldValue)
+            .map(this::readUserWithAuthorities)
+            .one();
+    }
+
+    /**
+     * Seek the users following the cursor, so that the cost of a page does not depend on its depth.
+     */
+    private Flux<User> findAllAfter(UserCursor cursor, int size, boolean activatedOnly) {
+        String comparison = cursor.getDirection().isAscending() ? " > " : " < ";
+        String direction = " " + cursor.getDirection().name();
+        boolean byLogin = "login".equals(cursor.getProperty());
+        List<String> conditions = new ArrayList<>();
+        if (activatedOnly) {
+            conditions.add("e.activated = TRUE");
+        }
+        if (!cursor.isFirst()) {
+            conditions.add(byLogin ? "e.login" + comparison + ":lastLogin" : "e.id" + comparison + ":lastId");
+        }
+        String sql =
+            "SELECT " +
+            USER_COLUMNS +
+            (activatedOnly ? "" : ", " + authoritiesColumn) +
+            " FROM jhi_user e" +
+            (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+            " ORDER BY " +
+            (byLogin ? "e.login" : "e.id") +
+            direction +
+            " LIMIT :size";
+        DatabaseClient.GenericExecuteSpec statement = db.sql(sql).bind("size", size);
+        if (!cursor.isFirst()) {
+            statement = byLogin ? statement.bind("lastLogin", cursor.getLastLogin()) : statement.bind("lastId", cursor.getLastId());
+        }
+        if (activatedOnly) {
+            return statement.map((row, metadata) -> userMapper.apply(row, metadata, EntityManager.ENTITY_ALIAS)).all();
+        }
+        return statement.map(this::readUserWithAuthorities).all();
+    }
 
+    private User readUserWithAuthorities(Row row, RowMetadata metadata) {
+        User user = userMapper.apply(row, metadata, EntityManager.ENTITY_ALIAS);
+        String authorityNames = row.get("authorities", String.class);
+        if (authorityNames != null) {
+            user.setAuthorities(
+                Arrays
+                    .stream(authorityNames.split(AUTHORITY_SEPARATOR))
+                    .map(name -> {
+                        Authority authority = new Authority();
+                        authority.setName(name);
+                        return authority;
+                    })
+                    .collect(Collectors.toSet())
+            );
+        }
         return user;
     }
 }
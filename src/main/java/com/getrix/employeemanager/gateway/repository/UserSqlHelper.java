@@ -1,27 +1,55 @@
 package com.getrix.employeemanager.gateway.repository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Table;
 
 public class UserSqlHelper {
 
+    /**
+     * The columns of a user, and the suffixes of their aliases, as read by
+     * {@link com.getrix.employeemanager.gateway.repository.rowmapper.UserRowMapper}.
+     */
+    private static final String[][] COLUMNS = {
+        { "id", "_id" },
+        { "login", "_login" },
+        { "password_hash", "_password" },
+        { "first_name", "_first_name" },
+        { "last_name", "_last_name" },
+        { "email", "_email" },
+        { "activated", "_activated" },
+        { "lang_key", "_lang_key" },
+        { "image_url", "_image_url" },
+        { "activation_key", "_activation_key" },
+        { "reset_key", "_reset_key" },
+        { "reset_date", "_reset_date" },
+        { "created_by", "_created_by" },
+        { "created_date", "_created_date" },
+        { "last_modified_by", "_last_modified_by" },
+        { "last_modified_date", "_last_modified_date" },
+    };
+
     public static List<Expression> getColumns(Table table, String columnPrefix) {
         List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("login", table, columnPrefix + "_login"));
-        columns.add(Column.aliased("password_hash", table, columnPrefix + "_password"));
-        columns.add(Column.aliased("first_name", table, columnPrefix + "_first_name"));
-        columns.add(Column.aliased("last_name", table, columnPrefix + "_last_name"));
-        columns.add(Column.aliased("email", table, columnPrefix + "_email"));
-        columns.add(Column.aliased("activated", table, columnPrefix + "_activated"));
-        columns.add(Column.aliased("lang_key", table, columnPrefix + "_lang_key"));
-        columns.add(Column.aliased("image_url", table, columnPrefix + "_image_url"));
-        columns.add(Column.aliased("activation_key", table, columnPrefix + "_activation_key"));
-        columns.add(Column.aliased("reset_key", table, columnPrefix + "_reset_key"));
-        columns.add(Column.aliased("reset_date", table, columnPrefix + "_reset_date"));
+        for (String[] column : COLUMNS) {
+            columns.add(Column.aliased(column[0], table, columnPrefix + column[1]));
+        }
         return columns;
     }
+
+    /**
+     * @param tableAlias the alias of the users table.
+     * @param columnPrefix the prefix of the column aliases.
+     * @return the columns of a user as a SQL select list, such as {@code e.id AS e_id, e.login AS e_login, ...}.
+     */
+    public static String getColumnList(String tableAlias, String columnPrefix) {
+        return Arrays
+            .stream(COLUMNS)
+            .map(column -> tableAlias + "." + column[0] + " AS " + columnPrefix + column[1])
+            .collect(Collectors.joining(", "));
+    }
 }
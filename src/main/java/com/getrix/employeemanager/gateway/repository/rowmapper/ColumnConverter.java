@@ -1,6 +1,8 @@
 package com.getrix.employeemanager.gateway.repository.rowmapper;
 
+import io.r2dbc.spi.ColumnMetadata;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
@@ -47,20 +49,37 @@ public class ColumnConverter {
     }
 
     /**
-     * Convert a value from the {@link Row} to a type - throws an exception, it it's impossible.
-     * @param row which contains the column values.
+     * Resolve how to read a column as a type, once for all the rows of the same shape: directly from the driver when
+     * it produces a compatible type, or through {@link #convert(Object, Class)} otherwise.
+     * @param metadata the metadata of the rows.
+     * @param columnName the name of the column to read.
      * @param target class.
-     * @param columnName the name of the column which to convert.
      * @param <T> the parameter for the intended type.
-     * @return the value which can be constructed from the input.
+     * @return the reader of the column, by position.
+     * @throws IllegalArgumentException if the rows have no such column.
      */
-    public <T> T fromRow(Row row, String columnName, Class<T> target) {
-        try {
-            // try, directly the driver
-            return row.get(columnName, target);
-        } catch (Exception e) {
-            Object obj = row.get(columnName);
-            return convert(obj, target);
+    public <T> ColumnReader<T> reader(RowMetadata metadata, String columnName, Class<T> target) {
+        int index = 0;
+        for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+            if (column.getName().equalsIgnoreCase(columnName)) {
+                int position = index;
+                Class<?> javaType = column.getJavaType();
+                if (javaType != null && ClassUtils.isAssignable(target, javaType)) {
+                    return row -> row.get(position, target);
+                }
+                return row -> convert(row.get(position), target);
+            }
+            index++;
         }
+        throw new IllegalArgumentException("No column " + columnName + " in " + metadata.getColumnNames());
+    }
+
+    /**
+     * Reads a column of a {@link Row}, as resolved by {@link #reader(RowMetadata, String, Class)}.
+     * @param <T> the type of the column values.
+     */
+    @FunctionalInterface
+    public interface ColumnReader<T> {
+        T read(Row row);
     }
 }
@@ -1,42 +1,190 @@
 package com.getrix.employeemanager.gateway.repository.rowmapper;
 
 import com.getrix.employeemanager.gateway.domain.User;
+import com.getrix.employeemanager.gateway.repository.rowmapper.ColumnConverter.ColumnReader;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
-import java.util.function.BiFunction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.stereotype.Service;
 
 /**
- * Converter between {@link Row} to {@link User}, with proper type conversions.
+ * Converter between {@link Row} to {@link User}, with proper type conversions, for the columns selected by
+ * {@link com.getrix.employeemanager.gateway.repository.UserSqlHelper}.
+ * <p>
+ * Given the {@link RowMetadata}, the positions of the columns and how to convert them are resolved once per result
+ * shape, so that the rows are then read by index, without building column names or trying the driver first.
  */
 @Service
-public class UserRowMapper implements BiFunction<Row, String, User> {
+public class UserRowMapper {
 
     private final ColumnConverter converter;
 
+    private final Map<Shape, Plan> plans = new ConcurrentHashMap<>();
+
+    private volatile ResolvedPlan lastPlan;
+
     public UserRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
 
     /**
-     * Take a {@link Row} and a column prefix, and extract all the fields.
+     * Take a {@link Row}, its {@link RowMetadata} and a column prefix, and extract all the fields by position.
      * @return the {@link User} stored in the database.
+     * @throws IllegalArgumentException if a column of the user is missing.
      */
-    @Override
-    public User apply(Row row, String prefix) {
-        User entity = new User();
-        entity.setId(row.get(prefix + "_id", Long.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
-        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
-        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
-        return entity;
+    public User apply(Row row, RowMetadata metadata, String prefix) {
+        ResolvedPlan resolved = lastPlan;
+        if (resolved == null || resolved.metadata != metadata || !resolved.prefix.equals(prefix)) {
+            // the drivers share the metadata between the rows of a result, so the shape is looked up once per result
+            Shape shape = new Shape(prefix, new ArrayList<>(metadata.getColumnNames()));
+            Plan plan = plans.computeIfAbsent(shape, key -> resolve(metadata, prefix));
+            resolved = new ResolvedPlan(metadata, prefix, plan);
+            lastPlan = resolved;
+        }
+        return resolved.plan.map(row);
+    }
+
+    private Plan resolve(RowMetadata metadata, String prefix) {
+        return new Plan(
+            converter.reader(metadata, prefix + "_id", Long.class),
+            converter.reader(metadata, prefix + "_login", String.class),
+            converter.reader(metadata, prefix + "_password", String.class),
+            converter.reader(metadata, prefix + "_first_name", String.class),
+            converter.reader(metadata, prefix + "_last_name", String.class),
+            converter.reader(metadata, prefix + "_email", String.class),
+            converter.reader(metadata, prefix + "_activated", Boolean.class),
+            converter.reader(metadata, prefix + "_lang_key", String.class),
+            converter.reader(metadata, prefix + "_image_url", String.class),
+            converter.reader(metadata, prefix + "_activation_key", String.class),
+            converter.reader(metadata, prefix + "_reset_key", String.class),
+            converter.reader(metadata, prefix + "_reset_date", Instant.class),
+            converter.reader(metadata, prefix + "_created_by", String.class),
+            converter.reader(metadata, prefix + "_created_date", Instant.class),
+            converter.reader(metadata, prefix + "_last_modified_by", String.class),
+            converter.reader(metadata, prefix + "_last_modified_date", Instant.class)
+        );
+    }
+
+    private static final class Plan {
+
+        private final ColumnReader<Long> id;
+        private final ColumnReader<String> login;
+        private final ColumnReader<String> password;
+        private final ColumnReader<String> firstName;
+        private final ColumnReader<String> lastName;
+        private final ColumnReader<String> email;
+        private final ColumnReader<Boolean> activated;
+        private final ColumnReader<String> langKey;
+        private final ColumnReader<String> imageUrl;
+        private final ColumnReader<String> activationKey;
+        private final ColumnReader<String> resetKey;
+        private final ColumnReader<Instant> resetDate;
+        private final ColumnReader<String> createdBy;
+        private final ColumnReader<Instant> createdDate;
+        private final ColumnReader<String> lastModifiedBy;
+        private final ColumnReader<Instant> lastModifiedDate;
+
+        private Plan(
+            ColumnReader<Long> id,
+            ColumnReader<String> login,
+            ColumnReader<String> password,
+            ColumnReader<String> firstName,
+            ColumnReader<String> lastName,
+            ColumnReader<String> email,
+            ColumnReader<Boolean> activated,
+            ColumnReader<String> langKey,
+            ColumnReader<String> imageUrl,
+            ColumnReader<String> activationKey,
+            ColumnReader<String> resetKey,
+            ColumnReader<Instant> resetDate,
+            ColumnReader<String> createdBy,
+            ColumnReader<Instant> createdDate,
+            ColumnReader<String> lastModifiedBy,
+            ColumnReader<Instant> lastModifiedDate
+        ) {
+            this.id = id;
+            this.login = login;
+            this.password = password;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.activated = activated;
+            this.langKey = langKey;
+            this.imageUrl = imageUrl;
+            this.activationKey = activationKey;
+            this.resetKey = resetKey;
+            this.resetDate = resetDate;
+            this.createdBy = createdBy;
+            this.createdDate = createdDate;
+            this.lastModifiedBy = lastModifiedBy;
+            this.lastModifiedDate = lastModifiedDate;
+        }
+
+        private User map(Row row) {
+            User entity = new User();
+            entity.setId(id.read(row));
+            entity.setLogin(login.read(row));
+            entity.setPassword(password.read(row));
+            entity.setFirstName(firstName.read(row));
+            entity.setLastName(lastName.read(row));
+            entity.setEmail(email.read(row));
+            entity.setActivated(Boolean.TRUE.equals(activated.read(row)));
+            entity.setLangKey(langKey.read(row));
+            entity.setImageUrl(imageUrl.read(row));
+            entity.setActivationKey(activationKey.read(row));
+            entity.setResetKey(resetKey.read(row));
+            entity.setResetDate(resetDate.read(row));
+            entity.setCreatedBy(createdBy.read(row));
+            entity.setCreatedDate(createdDate.read(row));
+            entity.setLastModifiedBy(lastModifiedBy.read(row));
+            entity.setLastModifiedDate(lastModifiedDate.read(row));
+            return entity;
+        }
+    }
+
+    private static final class ResolvedPlan {
+
+        private final RowMetadata metadata;
+        private final String prefix;
+        private final Plan plan;
+
+        private ResolvedPlan(RowMetadata metadata, String prefix, Plan plan) {
+            this.metadata = metadata;
+            this.prefix = prefix;
+            this.plan = plan;
+        }
+    }
+
+    private static final class Shape {
+
+        private final String prefix;
+        private final List<String> columnNames;
+
+        private Shape(String prefix, List<String> columnNames) {
+            this.prefix = prefix;
+            this.columnNames = columnNames;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Shape)) {
+                return false;
+            }
+            Shape shape = (Shape) o;
+            return prefix.equals(shape.prefix) && columnNames.equals(shape.columnNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(prefix, columnNames);
+        }
     }
 }
@@ -0,0 +1,85 @@
+package com.getrix.employeemanager.gateway.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Registry of canonical, shared {@link GrantedAuthority} instances.
+ * <p>
+ * The application only knows a handful of roles, so instead of allocating new authorities for every authenticated
+ * request, the authorities and the authority lists parsed from the {@code auth} claim of the JWTs are interned here.
+ * Both pools are bounded: past their capacity, new values are still returned but no longer cached.
+ */
+public final class AuthorityRegistry {
+
+    private static final int MAX_AUTHORITIES = 256;
+
+    private static final int MAX_AUTHORITY_CLAIMS = 1024;
+
+    private static final ConcurrentMap<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, List<GrantedAuthority>> AUTHORITY_CLAIMS = new ConcurrentHashMap<>();
+
+    static {
+        of(AuthoritiesConstants.ADMIN);
+        of(AuthoritiesConstants.USER);
+        of(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    private AuthorityRegistry() {}
+
+    /**
+     * Get the canonical instance of an authority.
+     *
+     * @param authority the authority name, for example {@link AuthoritiesConstants#ADMIN}.
+     * @return the shared authority.
+     */
+    public static GrantedAuthority of(String authority) {
+        GrantedAuthority grantedAuthority = AUTHORITIES.get(authority);
+        if (grantedAuthority == null) {
+            grantedAuthority = new SimpleGrantedAuthority(authority);
+            if (AUTHORITIES.size() < MAX_AUTHORITIES) {
+                GrantedAuthority existing = AUTHORITIES.putIfAbsent(authority, grantedAuthority);
+                if (existing != null) {
+                    grantedAuthority = existing;
+                }
+            }
+        }
+        return grantedAuthority;
+    }
+
+    /**
+     * Parse a comma-separated list of authorities, as found in the {@code auth} claim of the JWTs.
+     *
+     * @param claim the raw claim value.
+     * @return the shared, unmodifiable list of the canonical authorities, blank names being skipped.
+     */
+    public static List<GrantedAuthority> fromClaim(String claim) {
+        List<GrantedAuthority> authorities = AUTHORITY_CLAIMS.get(claim);
+        if (authorities == null) {
+            authorities = parseClaim(claim);
+            if (AUTHORITY_CLAIMS.size() < MAX_AUTHORITY_CLAIMS) {
+                List<GrantedAuthority> existing = AUTHORITY_CLAIMS.putIfAbsent(claim, authorities);
+                if (existing != null) {
+                    authorities = existing;
+                }
+            }
+        }
+        return authorities;
+    }
+
+    private static List<GrantedAuthority> parseClaim(String claim) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String authority : claim.split(",")) {
+            if (!authority.trim().isEmpty()) {
+                authorities.add(of(authority));
+            }
+        }
+        return Collections.unmodifiableList(authorities);
+    }
+}
@@ -0,0 +1,177 @@
+package com.getrix.employeemanager.gateway.security;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the address of the client of a request.
+ * <p>
+ * The client address is the address of the TCP connection, unless the connection comes from one of the
+ * {@code application.security.login-throttling.trusted-proxies}. The client is then the last address of the
+ * {@code Forwarded} - or else {@code X-Forwarded-For} - header which is not a trusted proxy: each proxy appends the
+ * address it received the request from, while the addresses before were sent by the client, and can be spoofed.
+ */
+@Component
+public class ClientAddressResolver {
+
+    private static final String IPV4_OCTET = "(25[0-5]|2[0-4]\\d|1?\\d?\\d)";
+
+    private static final Pattern IPV4_ADDRESS = Pattern.compile(IPV4_OCTET + "(\\." + IPV4_OCTET + "){3}");
+
+    private static final Pattern IPV6_ADDRESS = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private static final String FORWARDED_FOR = "for=";
+
+    private static final String FORWARDED = "Forwarded";
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<AddressRange> trustedProxies;
+
+    @Autowired
+    public ClientAddressResolver(ApplicationProperties applicationProperties) {
+        this(applicationProperties.getSecurity().getLoginThrottling().getTrustedProxies());
+    }
+
+    ClientAddressResolver(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream().map(AddressRange::parse).collect(Collectors.toList());
+    }
+
+    /**
+     * @param request the request.
+     * @return the address of the client, or {@code null} if unknown.
+     */
+    public InetAddress resolve(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        InetAddress address = remoteAddress != null ? remoteAddress.getAddress() : null;
+        if (address == null || !isTrustedProxy(address)) {
+            return address;
+        }
+        List<String> forwardedFor = forwardedFor(request.getHeaders());
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            InetAddress forwardedAddress = parseAddress(forwardedFor.get(i));
+            if (forwardedAddress == null) {
+                // an obfuscated or unknown address: the client cannot be told apart from the proxy which forwarded it
+                return address;
+            }
+            address = forwardedAddress;
+            if (!isTrustedProxy(address)) {
+                return address;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrustedProxy(InetAddress address) {
+        return trustedProxies.stream().anyMatch(trustedProxy -> trustedProxy.contains(address));
+    }
+
+    private static List<String> forwardedFor(HttpHeaders headers) {
+        List<String> addresses = new ArrayList<>();
+        List<String> forwarded = headers.get(FORWARDED);
+        if (forwarded != null) {
+            // RFC 7239: Forwarded: for=192.0.2.43;proto=https, for="[2001:db8::1]:4711"
+            for (String value : forwarded) {
+                for (String element : value.split(",")) {
+                    for (String pair : element.split(";")) {
+                        String trimmed = pair.trim();
+                        if (trimmed.toLowerCase(Locale.ENGLISH).startsWith(FORWARDED_FOR)) {
+                            addresses.add(trimmed.substring(FORWARDED_FOR.length()));
+                        }
+                    }
+                }
+            }
+            return addresses;
+        }
+        List<String> xForwardedFor = headers.get(X_FORWARDED_FOR);
+        if (xForwardedFor != null) {
+            for (String value : xForwardedFor) {
+                for (String element : value.split(",")) {
+                    addresses.add(element.trim());
+                }
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * Parse an address literal, never resolving a host name.
+     */
+    private static InetAddress parseAddress(String value) {
+        String address = value.replace("\"", "");
+        if (address.startsWith("[")) {
+            int end = address.indexOf(']');
+            address = end > 0 ? address.substring(1, end) : "";
+        } else if (address.indexOf(':') > 0 && address.indexOf(':') == address.lastIndexOf(':')) {
+            // an IPv4 address with a port
+            address = address.substring(0, address.indexOf(':'));
+        }
+        if (!IPV4_ADDRESS.matcher(address).matches() && !IPV6_ADDRESS.matcher(address).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * An address, or a CIDR range of addresses such as {@code 10.0.0.0/8}.
+     */
+    private static final class AddressRange {
+
+        private final byte[] address;
+
+        private final int prefixLength;
+
+        private AddressRange(byte[] address, int prefixLength) {
+            this.address = address;
+            this.prefixLength = prefixLength;
+        }
+
+        static AddressRange parse(String range) {
+            int slash = range.indexOf('/');
+            InetAddress address = parseAddress(slash < 0 ? range : range.substring(0, slash));
+            if (address == null) {
+                throw new IllegalArgumentException("Invalid trusted proxy address: " + range);
+            }
+            byte[] bytes = address.getAddress();
+            int prefixLength = slash < 0 ? bytes.length * 8 : Integer.parseInt(range.substring(slash + 1));
+            if (prefixLength < 0 || prefixLength > bytes.length * 8) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix length: " + range);
+            }
+            return new AddressRange(bytes, prefixLength);
+        }
+
+        boolean contains(InetAddress other) {
+            byte[] bytes = other.getAddress();
+            if (bytes.length != address.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != address[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xff00 >> remainingBits;
+            return (bytes[fullBytes] & mask) == (address[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.getrix.employeemanager.gateway.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a login attempt is rejected because too many attempts were made for the same login,
+ * or from the same client address.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many login attempts, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
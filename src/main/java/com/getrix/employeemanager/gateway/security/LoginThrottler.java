@@ -0,0 +1,101 @@
+package com.getrix.employeemanager.gateway.security;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.hazelcast.core.HazelcastInstance;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.grid.jcache.JCacheProxyManager;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Locale;
+import javax.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Token-bucket throttling of the login attempts, per login and per client address.
+ * <p>
+ * The buckets live in a Hazelcast JCache, so that the limits hold across all the gateway instances. An attempt
+ * consumes a token from the bucket of its client address, then from the bucket of its login: when either is empty,
+ * the attempt is rejected before the user is looked up and its password hashed. The client address is resolved by the
+ * {@link ClientAddressResolver}, which only reads it from a request header set by a trusted proxy.
+ */
+@Component
+public class LoginThrottler {
+
+    public static final String LOGIN_ATTEMPTS_CACHE = "login-attempts";
+
+    private final Logger log = LoggerFactory.getLogger(LoginThrottler.class);
+
+    private final boolean enabled;
+
+    private final ProxyManager<String> buckets;
+
+    private final BucketConfiguration loginBucketConfiguration;
+
+    private final BucketConfiguration addressBucketConfiguration;
+
+    @Autowired
+    public LoginThrottler(ApplicationProperties applicationProperties, HazelcastInstance hazelcastInstance) {
+        this(applicationProperties.getSecurity().getLoginThrottling(), new JCacheProxyManager<>(loginAttemptsCache(hazelcastInstance)));
+    }
+
+    LoginThrottler(ApplicationProperties.Security.LoginThrottling properties, ProxyManager<String> buckets) {
+        this.enabled = properties.isEnabled();
+        this.buckets = buckets;
+        this.loginBucketConfiguration =
+            BucketConfiguration
+                .builder()
+                .addLimit(Bandwidth.simple(properties.getLoginCapacity(), properties.getLoginRefillPeriod()))
+                .build();
+        this.addressBucketConfiguration =
+            BucketConfiguration
+                .builder()
+                .addLimit(Bandwidth.simple(properties.getAddressCapacity(), properties.getAddressRefillPeriod()))
+                .build();
+    }
+
+    /**
+     * Count a login attempt.
+     *
+     * @param login the login, or email, of the user.
+     * @param clientAddress the client address, if known.
+     * @return a {@link Mono} completing if the attempt can go on, or failing with a {@link LoginThrottledException}.
+     */
+    public Mono<Void> checkAttempt(String login, InetAddress clientAddress) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        // the Hazelcast JCache has no asynchronous API
+        return Mono
+            .fromRunnable(() -> {
+                if (clientAddress != null) {
+                    consume("address:" + clientAddress.getHostAddress(), addressBucketConfiguration);
+                }
+                if (login != null) {
+                    consume("login:" + login.toLowerCase(Locale.ENGLISH), loginBucketConfiguration);
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    private void consume(String key, BucketConfiguration configuration) {
+        ConsumptionProbe probe = buckets.builder().build(key, configuration).tryConsumeAndReturnRemaining(1);
+        if (!probe.isConsumed()) {
+            log.debug("Throttling the login attempts of {}", key);
+            throw new LoginThrottledException(Duration.ofNanos(probe.getNanosToWaitForRefill()));
+        }
+    }
+
+    private static Cache<String, byte[]> loginAttemptsCache(HazelcastInstance hazelcastInstance) {
+        // the instance's own cache manager, which can be shared by several application contexts
+        return hazelcastInstance.getCacheManager().getCache(LOGIN_ATTEMPTS_CACHE);
+    }
+}
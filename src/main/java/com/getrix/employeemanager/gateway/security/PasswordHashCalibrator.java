@@ -0,0 +1,61 @@
+package com.getrix.employeemanager.gateway.security;
+
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Utility class to pick the BCrypt cost matching a target hashing latency on the current hardware.
+ */
+public final class PasswordHashCalibrator {
+
+    /**
+     * The default BCrypt cost, below which the calibration does not go.
+     */
+    public static final int MIN_STRENGTH = 10;
+
+    public static final int MAX_STRENGTH = 31;
+
+    private static final int SAMPLES = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+
+    private PasswordHashCalibrator() {}
+
+    /**
+     * Measure the BCrypt costs from {@link #MIN_STRENGTH} up, until a hash takes longer than the target.
+     *
+     * @param targetLatency the maximum time of a single hash.
+     * @return the highest cost of which a hash takes less than the target, or {@link #MIN_STRENGTH}.
+     */
+    public static int calibrate(Duration targetLatency) {
+        // warm up the BCrypt code before timing it
+        hash(4);
+        int strength = MIN_STRENGTH;
+        for (int cost = MIN_STRENGTH; cost <= MAX_STRENGTH; cost++) {
+            long latency = hash(cost);
+            log.debug("BCrypt cost {} hashes in {} ms", cost, latency / 1_000_000);
+            if (latency > targetLatency.toNanos()) {
+                break;
+            }
+            strength = cost;
+        }
+        log.info("Calibrated BCrypt cost to {} for a target latency of {} ms", strength, targetLatency.toMillis());
+        return strength;
+    }
+
+    /**
+     * @return the shortest time of a few hashes of the given cost, in nanoseconds.
+     */
+    private static long hash(int cost) {
+        String salt = BCrypt.gensalt(cost);
+        long latency = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            latency = Math.min(latency, System.nanoTime() - start);
+        }
+        return latency;
+    }
+}
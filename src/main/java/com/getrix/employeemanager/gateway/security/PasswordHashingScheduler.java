@@ -0,0 +1,102 @@
+package com.getrix.employeemanager.gateway.security;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the password hashing and verification on a dedicated, fixed-size, pool of threads.
+ * <p>
+ * Password hashes are slow by design, and must neither run on the event loop nor compete with the other blocking tasks
+ * of the {@code boundedElastic} scheduler. Up to {@code queueCapacity} hashes wait for a thread: beyond that, they are
+ * rejected at once with a {@link PasswordHashingUnavailableException}, rather than piling up during a login spike.
+ * <p>
+ * The pool is published as the {@code executor.*} meters tagged with {@code name=password.hashing}: {@code executor}
+ * times the hashes, {@code executor.idle} their wait in the queue, and {@code executor.queued} is the queue depth.
+ */
+@Component
+public class PasswordHashingScheduler implements DisposableBean {
+
+    public static final String METRIC_NAME = "password.hashing";
+
+    private final Scheduler scheduler;
+
+    @Autowired
+    public PasswordHashingScheduler(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(applicationProperties.getSecurity().getPasswordHashing(), meterRegistry);
+    }
+
+    PasswordHashingScheduler(ApplicationProperties.Security.PasswordHashing properties, MeterRegistry meterRegistry) {
+        Counter rejections = Counter
+            .builder(METRIC_NAME + ".rejected")
+            .description("The number of password hashes rejected because the queue was full")
+            .register(meterRegistry);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            properties.getThreads(),
+            properties.getThreads(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            new CustomizableThreadFactory("password-hashing-"),
+            (task, rejectingExecutor) -> {
+                rejections.increment();
+                throw new RejectedExecutionException("Password hashing queue is full");
+            }
+        );
+        this.scheduler =
+            Schedulers.fromExecutorService(ExecutorServiceMetrics.monitor(meterRegistry, executor, METRIC_NAME, Tags.empty()), METRIC_NAME);
+    }
+
+    /**
+     * Run a password hashing or verification.
+     *
+     * @param hashing the hashing to run.
+     * @param <T> the result type.
+     * @return the result of the hashing, emitted from a password hashing thread, or a
+     * {@link PasswordHashingUnavailableException} if too many hashes are already waiting.
+     */
+    public <T> Mono<T> schedule(Callable<T> hashing) {
+        return onRejection(Mono.fromCallable(hashing).subscribeOn(scheduler));
+    }
+
+    /**
+     * Get the scheduler, for the components running their own hashes, like
+     * {@link org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager}. Their
+     * results must go through {@link #onRejection(Mono)}.
+     *
+     * @return the password hashing scheduler.
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Translate the rejections of the scheduler into a {@link PasswordHashingUnavailableException}.
+     *
+     * @param result the result of a hashing run on the scheduler.
+     * @param <T> the result type.
+     * @return the translated result.
+     */
+    public <T> Mono<T> onRejection(Mono<T> result) {
+        return result.onErrorMap(RejectedExecutionException.class, PasswordHashingUnavailableException::new);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
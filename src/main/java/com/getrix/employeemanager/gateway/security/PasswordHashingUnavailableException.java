@@ -0,0 +1,13 @@
+package com.getrix.employeemanager.gateway.security;
+
+/**
+ * This exception is thrown when a password cannot be hashed because the password hashing queue is full.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingUnavailableException(Throwable t) {
+        super("Too many passwords are being hashed, try again later", t);
+    }
+}
@@ -0,0 +1,72 @@
+package com.getrix.employeemanager.gateway.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * BCrypt {@link PasswordEncoder} which asks for the stored hashes of a lower cost to be replaced.
+ * <p>
+ * The hashes of a higher cost are kept: the cost is calibrated on each node at startup, so a node which calibrated a
+ * lower cost, because it booted slow or under load, must neither weaken the existing hashes nor rewrite them back and
+ * forth with the other nodes. Unlike {@link BCryptPasswordEncoder#upgradeEncoding(String)}, the hashes which are not
+ * BCrypt ones are left alone rather than rejected. The new hash is computed when the user logs in successfully, and
+ * stored by the {@link org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService}.
+ * <p>
+ * The passwords made by {@link #unusablePassword()} never match, so that their users cannot log in until they set
+ * their own password.
+ */
+public class RehashingPasswordEncoder implements PasswordEncoder {
+
+    /**
+     * The prefix of the passwords which never match, which cannot start a BCrypt hash.
+     */
+    public static final String UNUSABLE_PASSWORD_PREFIX = "!";
+
+    private static final Pattern BCRYPT_COST_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int strength;
+
+    public RehashingPasswordEncoder(int strength) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Make a password which never matches, distinct for each user, without the cost of hashing it.
+     * @return the password to store.
+     */
+    public static String unusablePassword() {
+        return UNUSABLE_PASSWORD_PREFIX + RandomUtil.generateRandomAlphanumericString();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword != null && encodedPassword.startsWith(UNUSABLE_PASSWORD_PREFIX)) {
+            return false;
+        }
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
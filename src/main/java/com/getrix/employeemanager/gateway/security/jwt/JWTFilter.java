@@ -11,28 +11,62 @@ import reactor.core.publisher.Mono;
 
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
- * found.
+ * found. Revoked tokens are ignored, as if they were invalid.
  */
 public class JWTFilter implements WebFilter {
 
     public static final String AUTHORIZATION_HEADER = "Authorization";
 
+    /**
+     * Exchange attribute holding the {@link Authentication} of a request whose bearer token was verified.
+     */
+    public static final String AUTHENTICATION_ATTRIBUTE = JWTFilter.class.getName() + ".AUTHENTICATION";
+
+    /**
+     * Exchange attribute holding the bearer token that was verified for the request.
+     */
+    public static final String TOKEN_ATTRIBUTE = JWTFilter.class.getName() + ".TOKEN";
+
     private final TokenProvider tokenProvider;
 
-    public JWTFilter(TokenProvider tokenProvider) {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public JWTFilter(TokenProvider tokenProvider, VerifiedTokenCache verifiedTokenCache, TokenRevocationStore tokenRevocationStore) {
         this.tokenProvider = tokenProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String jwt = resolveToken(exchange.getRequest());
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            return chain.filter(exchange).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        if (StringUtils.hasText(jwt)) {
+            TokenVerificationResult verification = this.verifiedTokenCache.get(jwt);
+            if (verification == null) {
+                verification = this.tokenProvider.verifyToken(jwt);
+                this.verifiedTokenCache.put(jwt, verification);
+            }
+            if (verification.isValid()) {
+                Authentication authentication = verification.getAuthentication();
+                if (!this.tokenRevocationStore.mightBeRevoked(verification)) {
+                    return authenticate(exchange, chain, jwt, authentication);
+                }
+                return this.tokenRevocationStore
+                    .isRevoked(verification)
+                    .flatMap(revoked -> revoked ? chain.filter(exchange) : authenticate(exchange, chain, jwt, authentication));
+            }
         }
         return chain.filter(exchange);
     }
 
+    private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain, String jwt, Authentication authentication) {
+        exchange.getAttributes().put(AUTHENTICATION_ATTRIBUTE, authentication);
+        exchange.getAttributes().put(TOKEN_ATTRIBUTE, jwt);
+        return chain.filter(exchange).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
     private String resolveToken(ServerHttpRequest request) {
         String bearerToken = request.getHeaders().getFirst(AUTHORIZATION_HEADER);
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
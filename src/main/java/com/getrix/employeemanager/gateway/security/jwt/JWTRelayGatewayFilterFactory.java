@@ -2,27 +2,38 @@ package com.getrix.employeemanager.gateway.security.jwt;
 
 import static com.getrix.employeemanager.gateway.security.jwt.JWTFilter.AUTHORIZATION_HEADER;
 
+import java.util.List;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
 
 @Component
 public class JWTRelayGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
 
     private final TokenProvider tokenProvider;
 
-    public JWTRelayGatewayFilterFactory(TokenProvider tokenProvider) {
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public JWTRelayGatewayFilterFactory(TokenProvider tokenProvider, TokenRevocationStore tokenRevocationStore) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     @Override
     public GatewayFilter apply(Object config) {
         return (exchange, chain) -> {
             String token = this.extractJWTToken(exchange.getRequest());
-            if (StringUtils.hasText(token) && this.tokenProvider.validateToken(token)) {
-                ServerHttpRequest request = exchange.getRequest().mutate().header(AUTHORIZATION_HEADER, "Bearer " + token).build();
+            if (StringUtils.hasText(token) && this.isVerified(exchange, token)) {
+                String bearerToken = "Bearer " + token;
+                List<String> authorizationHeaders = exchange.getRequest().getHeaders().get(AUTHORIZATION_HEADER);
+                if (authorizationHeaders != null && authorizationHeaders.size() == 1 && bearerToken.equals(authorizationHeaders.get(0))) {
+                    // the header relayed downstream is already the verified token, no need to copy the request
+                    return chain.filter(exchange);
+                }
+                ServerHttpRequest request = exchange.getRequest().mutate().header(AUTHORIZATION_HEADER, bearerToken).build();
 
                 return chain.filter(exchange.mutate().request(request).build());
             }
@@ -30,6 +41,19 @@ public class JWTRelayGatewayFilterFactory extends AbstractGatewayFilterFactory<O
         };
     }
 
+    /**
+     * Reuse the verification done by {@link JWTFilter} for this exchange, and only verify the token again when the
+     * request did not go through it. In that case, a token that may have been revoked is not relayed.
+     */
+    private boolean isVerified(ServerWebExchange exchange, String token) {
+        String verifiedToken = exchange.getAttribute(JWTFilter.TOKEN_ATTRIBUTE);
+        if (verifiedToken != null) {
+            return verifiedToken.equals(token);
+        }
+        TokenVerificationResult verification = this.tokenProvider.verifyToken(token);
+        return verification.isValid() && !this.tokenRevocationStore.mightBeRevoked(verification);
+    }
+
     private String extractJWTToken(ServerHttpRequest request) {
         String bearerToken = request.getHeaders().getFirst(AUTHORIZATION_HEADER);
         if (bearerToken == null) {
@@ -0,0 +1,470 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.hazelcast.core.HazelcastInstance;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Rotating ring of asymmetric keys used to sign and verify JWTs, shared by all the gateway instances through Hazelcast.
+ * <p>
+ * A new key is generated every {@code application.security.jwt.key-rotation-period}, and is published in the JWKS
+ * document for {@code application.security.jwt.jwks-cache-duration} before being used to sign tokens, so that services
+ * caching the JWKS already know it when they receive the first token signed with it. A superseded key is kept for
+ * verification until every token it signed has expired, so a rotation never forces users to log in again.
+ * <p>
+ * The ring is only active when {@code application.security.jwt.signature-algorithm} is an RSA or elliptic curve
+ * algorithm; with the default {@code HS512} the shared JHipster secret is used instead.
+ * <p>
+ * The ring lives in the {@value #KEY_RING_MAP} Hazelcast map, which has two limits:
+ * <ul>
+ *     <li>any member or client of the Hazelcast cluster can read the map. The private keys are stored encrypted with
+ *     AES-GCM, under a key derived from the shared JHipster JWT secret, so reading them is not enough to sign tokens
+ *     without that secret. Anyone who can write to the map can still delete the keys, or replace them.</li>
+ *     <li>the map is not persisted. If the whole cluster restarts at once, the ring is lost: a new key is generated,
+ *     and every token signed before the restart is rejected, so all the users must log in again. The tokens signed
+ *     with the shared secret are then accepted again for the longest token validity. A rolling restart keeps the
+ *     ring.</li>
+ * </ul>
+ */
+@Component
+public class JwtKeyRing {
+
+    public static final String KEY_RING_MAP = "jwt-key-ring";
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final String KEY_ENCRYPTION_ALGORITHM = "AES/GCM/NoPadding";
+
+    private static final int KEY_ENCRYPTION_IV_LENGTH = 12;
+
+    private static final int KEY_ENCRYPTION_TAG_LENGTH = 128;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private static final Duration UNKNOWN_KEY_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    private final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final SignatureAlgorithm signatureAlgorithm;
+
+    private final Duration keyRotationPeriod;
+
+    private final Duration jwksCacheDuration;
+
+    private final Duration maxTokenValidity;
+
+    private final Duration keyRetention;
+
+    private final ConcurrentMap<Long, JwtSigningKey> store;
+
+    private final SecretKey keyEncryptionKey;
+
+    private final Clock clock;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * The earliest time, in epoch milliseconds, the ring can be reloaded to look for an unknown key.
+     */
+    private final AtomicLong nextUnknownKeyReload = new AtomicLong();
+
+    @Autowired
+    public JwtKeyRing(
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties,
+        HazelcastInstance hazelcastInstance,
+        VerifiedTokenCache verifiedTokenCache
+    ) {
+        this(
+            applicationProperties.getSecurity().getJwt(),
+            Duration.ofSeconds(
+                Math.max(
+                    jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds(),
+                    jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe()
+                )
+            ),
+            isAsymmetric(applicationProperties.getSecurity().getJwt()) ? hazelcastInstance.getMap(KEY_RING_MAP) : null,
+            isAsymmetric(applicationProperties.getSecurity().getJwt())
+                ? keyEncryptionKey(jHipsterProperties.getSecurity().getAuthentication().getJwt())
+                : null,
+            Clock.systemUTC(),
+            verifiedTokenCache
+        );
+    }
+
+    JwtKeyRing(
+        ApplicationProperties.Security.Jwt properties,
+        Duration maxTokenValidity,
+        ConcurrentMap<Long, JwtSigningKey> store,
+        SecretKey keyEncryptionKey,
+        Clock clock,
+        VerifiedTokenCache verifiedTokenCache
+    ) {
+        this.signatureAlgorithm = isAsymmetric(properties) ? SignatureAlgorithm.forName(properties.getSignatureAlgorithm()) : null;
+        this.keyRotationPeriod = properties.getKeyRotationPeriod();
+        this.jwksCacheDuration = properties.getJwksCacheDuration();
+        this.maxTokenValidity = maxTokenValidity;
+        // keep a superseded key until the tokens it signed have expired, and the last JWKS listing it is stale
+        this.keyRetention = maxTokenValidity.plus(jwksCacheDuration);
+        this.store = store;
+        this.keyEncryptionKey = keyEncryptionKey;
+        this.clock = clock;
+        this.verifiedTokenCache = verifiedTokenCache;
+        if (isEnabled()) {
+            log.debug("Using a rotating {} key ring to sign JWTs", signatureAlgorithm.getValue());
+            if (store.isEmpty()) {
+                // nobody can have cached a JWKS yet, so the first key is used right away
+                store.putIfAbsent(1L, generateKey(clock.instant()));
+            }
+            refresh();
+        }
+    }
+
+    private static boolean isAsymmetric(ApplicationProperties.Security.Jwt properties) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(properties.getSignatureAlgorithm());
+        if (algorithm.isHmac()) {
+            return false;
+        }
+        if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+            throw new IllegalArgumentException("Unsupported JWT signature algorithm: " + algorithm.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Derive the key encrypting the private keys of the ring from the shared JHipster JWT secret, rather than using the
+     * secret itself, which signs the {@code HS512} tokens.
+     * @param jwt the JHipster JWT properties.
+     * @return the AES key.
+     */
+    static SecretKey keyEncryptionKey(JHipsterProperties.Security.Authentication.Jwt jwt) {
+        byte[] secret = !ObjectUtils.isEmpty(jwt.getBase64Secret())
+            ? Decoders.BASE64.decode(jwt.getBase64Secret())
+            : jwt.getSecret().getBytes(StandardCharsets.UTF_8);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(KEY_RING_MAP.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest.digest(secret), "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return true if the tokens are signed with the keys of this ring, false if the shared HMAC secret is used.
+     */
+    public boolean isEnabled() {
+        return signatureAlgorithm != null;
+    }
+
+    public SignatureAlgorithm getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * @return the key to sign new tokens with.
+     */
+    public ActiveKey getSigningKey() {
+        return snapshot.signingKey;
+    }
+
+    /**
+     * Get the key to verify a token with. An unknown key may have been generated by another instance since the last
+     * {@link #refresh()}, so the ring is first reloaded from Hazelcast - at most every
+     * {@code UNKNOWN_KEY_RELOAD_INTERVAL}, as the reload blocks the calling thread.
+     *
+     * @param keyId the {@code kid} header of a token.
+     * @return the public key to verify the token with, or {@code null} if the key is unknown or retired.
+     */
+    public PublicKey getVerificationKey(String keyId) {
+        PublicKey verificationKey = snapshot.verificationKeys.get(keyId);
+        if (verificationKey == null && isEnabled() && acquireUnknownKeyReload()) {
+            log.debug("Reloading the JWT key ring for the unknown key {}", keyId);
+            update(new Snapshot(new TreeMap<>(store), clock.instant(), maxTokenValidity, keyEncryptionKey));
+            verificationKey = snapshot.verificationKeys.get(keyId);
+        }
+        return verificationKey;
+    }
+
+    /**
+     * @return true if the tokens without {@code kid} header, signed with the shared secret before the ring was enabled,
+     * may still be valid: the longest token validity has not passed yet since the first key of the ring was generated.
+     */
+    public boolean acceptsSharedSecretTokens() {
+        Instant expiration = snapshot.sharedSecretTokensExpiration;
+        return expiration != null && clock.instant().isBefore(expiration);
+    }
+
+    /**
+     * @return the JSON Web Key Set document listing the public keys of the ring.
+     */
+    public Map<String, Object> getJwks() {
+        return snapshot.jwks;
+    }
+
+    public Duration getJwksCacheDuration() {
+        return jwksCacheDuration;
+    }
+
+    /**
+     * Rotates and retires keys when they are due, and reloads the keys generated by the other gateway instances.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        Instant now = clock.instant();
+        TreeMap<Long, JwtSigningKey> keys = new TreeMap<>(store);
+        Map.Entry<Long, JwtSigningKey> newest = keys.lastEntry();
+        if (!now.isBefore(newest.getValue().getActivatesAt().plus(keyRotationPeriod).minus(jwksCacheDuration))) {
+            // the first instance to get there publishes the next key, the others lose the putIfAbsent race
+            JwtSigningKey next = generateKey(now.plus(jwksCacheDuration));
+            if (store.putIfAbsent(newest.getKey() + 1, next) == null) {
+                log.info("Generated JWT signing key {}, active from {}", next.getKeyId(), next.getActivatesAt());
+                keys.put(newest.getKey() + 1, next);
+            } else {
+                keys = new TreeMap<>(store);
+            }
+        }
+        for (Map.Entry<Long, JwtSigningKey> entry : new ArrayList<>(keys.entrySet())) {
+            Map.Entry<Long, JwtSigningKey> successor = keys.higherEntry(entry.getKey());
+            if (successor != null && !now.isBefore(successor.getValue().getActivatesAt().plus(keyRetention))) {
+                log.info("Retiring JWT signing key {}", entry.getValue().getKeyId());
+                store.remove(entry.getKey(), entry.getValue());
+                keys.remove(entry.getKey());
+            }
+        }
+        update(new Snapshot(keys, now, maxTokenValidity, keyEncryptionKey));
+    }
+
+    private void update(Snapshot next) {
+        Snapshot previous = snapshot;
+        snapshot = next;
+        if (previous != null && !next.verificationKeys.keySet().containsAll(previous.verificationKeys.keySet())) {
+            // a key removed from the ring, when retired or deleted from Hazelcast, must not keep its tokens verified
+            verifiedTokenCache.invalidateAll();
+        }
+    }
+
+    private boolean acquireUnknownKeyReload() {
+        long now = clock.millis();
+        long next = nextUnknownKeyReload.get();
+        return now >= next && nextUnknownKeyReload.compareAndSet(next, now + UNKNOWN_KEY_RELOAD_INTERVAL.toMillis());
+    }
+
+    private JwtSigningKey generateKey(Instant activatesAt) {
+        KeyPair keyPair = Keys.keyPairFor(signatureAlgorithm);
+        String keyId = UUID.randomUUID().toString();
+        return new JwtSigningKey(
+            keyId,
+            signatureAlgorithm.getValue(),
+            encryptPrivateKey(keyEncryptionKey, keyId, keyPair.getPrivate().getEncoded()),
+            keyPair.getPublic().getEncoded(),
+            activatesAt
+        );
+    }
+
+    /**
+     * The key currently used to sign new tokens.
+     */
+    public static final class ActiveKey {
+
+        private final String keyId;
+
+        private final SignatureAlgorithm algorithm;
+
+        private final PrivateKey privateKey;
+
+        private ActiveKey(String keyId, SignatureAlgorithm algorithm, PrivateKey privateKey) {
+            this.keyId = keyId;
+            this.algorithm = algorithm;
+            this.privateKey = privateKey;
+        }
+
+        public String getKeyId() {
+            return keyId;
+        }
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+    }
+
+    /**
+     * Immutable, decoded view of the ring, rebuilt on every {@link #refresh()} so that signing and verifying tokens never
+     * go to Hazelcast.
+     */
+    private static final class Snapshot {
+
+        private final ActiveKey signingKey;
+
+        private final Map<String, PublicKey> verificationKeys;
+
+        private final Map<String, Object> jwks;
+
+        private final Instant sharedSecretTokensExpiration;
+
+        private Snapshot(TreeMap<Long, JwtSigningKey> keys, Instant now, Duration maxTokenValidity, SecretKey keyEncryptionKey) {
+            ActiveKey active = null;
+            Map<String, PublicKey> publicKeys = new HashMap<>();
+            List<Map<String, Object>> jwkList = new ArrayList<>();
+            for (JwtSigningKey key : keys.values()) {
+                SignatureAlgorithm algorithm = SignatureAlgorithm.forName(key.getAlgorithm());
+                PublicKey publicKey = decodePublicKey(algorithm, key.getPublicKey());
+                publicKeys.put(key.getKeyId(), publicKey);
+                jwkList.add(toJwk(key.getKeyId(), algorithm, publicKey));
+                if (!key.getActivatesAt().isAfter(now)) {
+                    byte[] privateKey = decryptPrivateKey(keyEncryptionKey, key.getKeyId(), key.getPrivateKey());
+                    active = new ActiveKey(key.getKeyId(), algorithm, decodePrivateKey(algorithm, privateKey));
+                }
+            }
+            this.signingKey = active;
+            this.verificationKeys = Collections.unmodifiableMap(publicKeys);
+            this.jwks = Collections.singletonMap("keys", Collections.unmodifiableList(jwkList));
+            // the first key is retired after the longest token validity, when no shared secret token is valid anymore
+            JwtSigningKey firstKey = keys.get(1L);
+            this.sharedSecretTokensExpiration = firstKey != null ? firstKey.getActivatesAt().plus(maxTokenValidity) : null;
+        }
+    }
+
+    /**
+     * Encrypt a PKCS#8 encoded private key, bound to its key id: the random IV followed by the AES-GCM ciphertext.
+     */
+    private static byte[] encryptPrivateKey(SecretKey keyEncryptionKey, String keyId, byte[] privateKey) {
+        byte[] iv = new byte[KEY_ENCRYPTION_IV_LENGTH];
+        SECURE_RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(KEY_ENCRYPTION_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(KEY_ENCRYPTION_TAG_LENGTH, iv));
+            cipher.updateAAD(keyId.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(privateKey);
+            byte[] encrypted = Arrays.copyOf(iv, iv.length + ciphertext.length);
+            System.arraycopy(ciphertext, 0, encrypted, iv.length, ciphertext.length);
+            return encrypted;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt the JWT private key", e);
+        }
+    }
+
+    private static byte[] decryptPrivateKey(SecretKey keyEncryptionKey, String keyId, byte[] encrypted) {
+        try {
+            Cipher cipher = Cipher.getInstance(KEY_ENCRYPTION_ALGORITHM);
+            cipher.init(
+                Cipher.DECRYPT_MODE,
+                keyEncryptionKey,
+                new GCMParameterSpec(KEY_ENCRYPTION_TAG_LENGTH, encrypted, 0, KEY_ENCRYPTION_IV_LENGTH)
+            );
+            cipher.updateAAD(keyId.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(encrypted, KEY_ENCRYPTION_IV_LENGTH, encrypted.length - KEY_ENCRYPTION_IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot decrypt JWT private key " + keyId + " with the JWT secret of this instance", e);
+        }
+    }
+
+    private static PublicKey decodePublicKey(SignatureAlgorithm algorithm, byte[] encoded) {
+        try {
+            return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT public key", e);
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(SignatureAlgorithm algorithm, byte[] encoded) {
+        try {
+            return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT private key", e);
+        }
+    }
+
+    private static KeyFactory keyFactory(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+    }
+
+    private static Map<String, Object> toJwk(String keyId, SignatureAlgorithm algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        if (publicKey instanceof RSAPublicKey) {
+            RSAPublicKey rsaPublicKey = (RSAPublicKey) publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("n", BASE64_URL.encodeToString(unsigned(rsaPublicKey.getModulus())));
+            jwk.put("e", BASE64_URL.encodeToString(unsigned(rsaPublicKey.getPublicExponent())));
+        } else {
+            ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+            int fieldSize = (ecPublicKey.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + ecPublicKey.getParams().getCurve().getField().getFieldSize());
+            jwk.put("x", BASE64_URL.encodeToString(padded(ecPublicKey.getW().getAffineX(), fieldSize)));
+            jwk.put("y", BASE64_URL.encodeToString(padded(ecPublicKey.getW().getAffineY(), fieldSize)));
+        }
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes[0] == 0 && bytes.length > 1 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static byte[] padded(BigInteger value, int length) {
+        byte[] bytes = unsigned(value);
+        if (bytes.length >= length) {
+            return bytes;
+        }
+        byte[] result = new byte[length];
+        System.arraycopy(bytes, 0, result, length - bytes.length, bytes.length);
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An asymmetric key pair of the {@link JwtKeyRing}, in the encoded form shared between the gateway instances.
+ */
+public class JwtSigningKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String keyId;
+
+    private final String algorithm;
+
+    private final byte[] privateKey;
+
+    private final byte[] publicKey;
+
+    private final Instant activatesAt;
+
+    /**
+     * @param keyId the {@code kid} header of the tokens signed with this key.
+     * @param algorithm the JWS algorithm name, for example {@code RS256}.
+     * @param privateKey the PKCS#8 encoded private key, encrypted by the {@link JwtKeyRing}.
+     * @param publicKey the X.509 encoded public key.
+     * @param activatesAt the instant from which the key is used to sign new tokens.
+     */
+    public JwtSigningKey(String keyId, String algorithm, byte[] privateKey, byte[] publicKey, Instant activatesAt) {
+        this.keyId = keyId;
+        this.algorithm = algorithm;
+        this.privateKey = privateKey;
+        this.publicKey = publicKey;
+        this.activatesAt = activatesAt;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public byte[] getPrivateKey() {
+        return privateKey;
+    }
+
+    public byte[] getPublicKey() {
+        return publicKey;
+    }
+
+    public Instant getActivatesAt() {
+        return activatesAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtSigningKey{keyId='" + keyId + "', algorithm='" + algorithm + "', activatesAt=" + activatesAt + "}";
+    }
+}
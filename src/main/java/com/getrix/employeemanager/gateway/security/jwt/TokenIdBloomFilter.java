@@ -0,0 +1,93 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of token identifiers, whose membership test neither allocates nor locks.
+ * <p>
+ * The bit indexes are derived by double hashing from two independent 32-bit hashes of the identifier characters.
+ * Identifiers are never removed: the {@link TokenRevocationStore} builds a new filter when revoked tokens expire.
+ */
+final class TokenIdBloomFilter {
+
+    private static final double LN_2 = Math.log(2);
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions the number of identifiers the filter is sized for.
+     * @param falsePositiveProbability the probability of a false positive once the expected insertions are reached.
+     */
+    TokenIdBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("The expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("The false positive probability must be in ]0, 1[: " + falsePositiveProbability);
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN_2 * LN_2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = 64L * wordCount;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * LN_2));
+    }
+
+    void put(String tokenId) {
+        long hash1 = hash1(tokenId);
+        long hash2 = hash2(tokenId);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String tokenId) {
+        long hash1 = hash1(tokenId);
+        long hash2 = hash2(tokenId);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash1(String value) {
+        return mix(value.hashCode());
+    }
+
+    /**
+     * FNV-1a over the characters, independent from {@link String#hashCode()}.
+     */
+    private static long hash2(String value) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x01000193;
+        }
+        // a zero step would map every hash function to the same bit
+        return mix(hash) | 1;
+    }
+
+    /**
+     * The MurmurHash3 finalizer, spreading the entropy of all the input bits.
+     */
+    private static long mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash & 0xffffffffL;
+    }
+}
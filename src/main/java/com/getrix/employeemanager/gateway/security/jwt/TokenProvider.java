@@ -1,21 +1,27 @@
 package com.getrix.employeemanager.gateway.security.jwt;
 
 import com.getrix.employeemanager.gateway.management.SecurityMetersService;
+import com.getrix.employeemanager.gateway.security.AuthorityRegistry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Serializer;
 import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
+import javax.crypto.Mac;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
@@ -30,6 +36,22 @@ public class TokenProvider {
 
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * The encoded {@code {"alg":"HS512"}} header, shared by every token signed with the JHipster secret.
+     */
+    private static final String HS512_HEADER = BASE64_URL.encodeToString(
+        ("{\"alg\":\"" + SignatureAlgorithm.HS512.getValue() + "\"}").getBytes(StandardCharsets.UTF_8)
+    );
+
+    /**
+     * Maximum number of distinct authority sets whose {@code auth} claim is kept in {@link #authoritiesClaims}.
+     */
+    private static final int MAX_CACHED_AUTHORITIES_CLAIMS = 256;
+
+    private static final Serializer<Map<String, ?>> CLAIMS_SERIALIZER = new JacksonSerializer<>();
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -40,7 +62,21 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
+    private final JwtKeyRing keyRing;
+
+    private final ThreadLocal<Mac> hmac = ThreadLocal.withInitial(this::createHmac);
+
+    private final ConcurrentMap<Collection<? extends GrantedAuthority>, String> authoritiesClaims = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a provider signing tokens with the shared JHipster secret only.
+     */
     public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+        this(jHipsterProperties, securityMetersService, null);
+    }
+
+    @Autowired
+    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService, JwtKeyRing keyRing) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -55,7 +91,12 @@ public class TokenProvider {
             keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         }
         key = Keys.hmacShaKeyFor(keyBytes);
-        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.keyRing = keyRing != null && keyRing.isEnabled() ? keyRing : null;
+        if (this.keyRing != null) {
+            jwtParser = Jwts.parserBuilder().setSigningKeyResolver(new KeyRingSigningKeyResolver()).build();
+        } else {
+            jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        }
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
@@ -63,66 +104,179 @@ public class TokenProvider {
         this.securityMetersService = securityMetersService;
     }
 
+    /**
+     * Creates a token for the given authentication. Each token carries a unique {@code jti} and its {@code iat}, so
+     * that it can be revoked through the {@link TokenRevocationStore}.
+     * <p>
+     * Tokens signed with the JHipster secret are assembled directly from the precomputed header, the cached
+     * {@code auth} claim and a per-thread {@link Mac}, producing the same compact JWS as the jjwt builder without its
+     * per-token allocations. Tokens signed by the key ring go through the jjwt builder, whose cost is dominated by the
+     * asymmetric signature.
+     */
     public String createToken(Authentication authentication, boolean rememberMe) {
-        String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
+        String authorities = getAuthoritiesClaim(authentication.getAuthorities());
+        String tokenId = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        long validity = rememberMe ? this.tokenValidityInMillisecondsForRememberMe : this.tokenValidityInMilliseconds;
+        // the iat and exp claims are NumericDates, in seconds
+        long issuedAt = now / 1000;
+        long expiration = (now + validity) / 1000;
 
-        long now = (new Date()).getTime();
-        Date validity;
-        if (rememberMe) {
-            validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
-        } else {
-            validity = new Date(now + this.tokenValidityInMilliseconds);
+        if (keyRing != null) {
+            JwtKeyRing.ActiveKey signingKey = keyRing.getSigningKey();
+            return Jwts
+                .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKeyId())
+                .setId(tokenId)
+                .setSubject(authentication.getName())
+                .claim(AUTHORITIES_KEY, authorities)
+                .claim(Claims.ISSUED_AT, issuedAt)
+                .claim(Claims.EXPIRATION, expiration)
+                .signWith(signingKey.getPrivateKey(), signingKey.getAlgorithm())
+                .serializeToJsonWith(CLAIMS_SERIALIZER)
+                .compact();
         }
 
-        return Jwts
-            .builder()
-            .setSubject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .setExpiration(validity)
-            .serializeToJsonWith(new JacksonSerializer())
-            .compact();
+        StringBuilder claims = new StringBuilder(128 + authorities.length());
+        claims.append("{\"").append(Claims.ID).append("\":\"").append(tokenId).append('"');
+        claims.append(",\"").append(Claims.SUBJECT).append("\":");
+        appendJsonString(claims, authentication.getName());
+        claims.append(",\"").append(AUTHORITIES_KEY).append("\":");
+        appendJsonString(claims, authorities);
+        claims.append(",\"").append(Claims.ISSUED_AT).append("\":").append(issuedAt);
+        claims.append(",\"").append(Claims.EXPIRATION).append("\":").append(expiration).append('}');
+
+        String content = HS512_HEADER + '.' + BASE64_URL.encodeToString(claims.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] signature = hmac.get().doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        return content + '.' + BASE64_URL.encodeToString(signature);
     }
 
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
-
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        return createAuthentication(claims, token);
     }
 
     public boolean validateToken(String authToken) {
+        return verifyToken(authToken).isValid();
+    }
+
+    /**
+     * Verifies the signature of the given token and builds the matching {@link Authentication}, parsing the token only
+     * once. Rejected tokens are reported to the {@link SecurityMetersService}.
+     *
+     * @param authToken the compact JWS to verify.
+     * @return the authentication if the token is valid, the failure cause otherwise.
+     */
+    public TokenVerificationResult verifyToken(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+
+            Date issuedAt = claims.getIssuedAt();
+            Date expiration = claims.getExpiration();
 
-            return true;
+            return TokenVerificationResult.success(
+                createAuthentication(claims, authToken),
+                claims.getId(),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiration != null ? expiration.toInstant() : null
+            );
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenVerificationResult.failure(TokenVerificationResult.FailureCause.EXPIRED);
         } catch (UnsupportedJwtException e) {
             this.securityMetersService.trackTokenUnsupported();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenVerificationResult.failure(TokenVerificationResult.FailureCause.UNSUPPORTED);
         } catch (MalformedJwtException e) {
             this.securityMetersService.trackTokenMalformed();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenVerificationResult.failure(TokenVerificationResult.FailureCause.MALFORMED);
         } catch (SignatureException e) {
             this.securityMetersService.trackTokenInvalidSignature();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenVerificationResult.failure(TokenVerificationResult.FailureCause.INVALID_SIGNATURE);
         } catch (IllegalArgumentException e) { // TODO: should we let it bubble (no catch), to avoid defensive programming and follow the fail-fast principle?
             log.error("Token validation error {}", e.getMessage());
+            return TokenVerificationResult.failure(TokenVerificationResult.FailureCause.INVALID);
+        }
+    }
+
+    private Authentication createAuthentication(Claims claims, String token) {
+        List<GrantedAuthority> authorities = AuthorityRegistry.fromClaim(claims.get(AUTHORITIES_KEY).toString());
+
+        User principal = new User(claims.getSubject(), "", authorities);
+
+        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    }
+
+    /**
+     * Joins the authority names into the {@code auth} claim. Authentication authorities are immutable, and a gateway
+     * only ever sees a handful of distinct sets, so the joined value is cached per set.
+     */
+    private String getAuthoritiesClaim(Collection<? extends GrantedAuthority> authorities) {
+        String claim = authoritiesClaims.get(authorities);
+        if (claim == null) {
+            claim = authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
+            if (authoritiesClaims.size() < MAX_CACHED_AUTHORITIES_CLAIMS) {
+                authoritiesClaims.putIfAbsent(authorities, claim);
+            }
         }
+        return claim;
+    }
+
+    private Mac createHmac() {
+        SignatureAlgorithm.HS512.assertValidSigningKey(key);
+        try {
+            Mac mac = Mac.getInstance(SignatureAlgorithm.HS512.getJcaName());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize the " + SignatureAlgorithm.HS512.getJcaName() + " signer", e);
+        }
+    }
 
-        return false;
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Resolves the verification key from the {@code kid} header of the token. Tokens without {@code kid} were signed
+     * with the shared secret before the key ring was enabled, and are only accepted until they have all expired.
+     */
+    private class KeyRingSigningKeyResolver extends SigningKeyResolverAdapter {
+
+        // JJWT declares the overridden method with a raw JwsHeader
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String keyId = header.getKeyId();
+            if (keyId == null) {
+                if (!keyRing.acceptsSharedSecretTokens()) {
+                    throw new SignatureException("JWT without signing key id");
+                }
+                return key;
+            }
+            Key verificationKey = keyRing.getVerificationKey(keyId);
+            if (verificationKey == null) {
+                throw new SignatureException("Unknown JWT signing key: " + keyId);
+            }
+            return verificationKey;
+        }
     }
 }
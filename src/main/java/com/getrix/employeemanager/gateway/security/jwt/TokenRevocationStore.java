@@ -0,0 +1,239 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Cluster-wide revocation of JWTs before they expire, shared by all the gateway instances through Hazelcast.
+ * <p>
+ * A single token is revoked by its {@code jti}, kept in a Hazelcast map until the token expires. Each instance mirrors
+ * the revoked identifiers into a local Bloom filter, so that checking a token that was not revoked costs neither a
+ * network call nor an allocation: the map is only read when the filter reports a possible match. All the tokens of a
+ * user are revoked at once by recording the time of the revocation: the tokens issued up to that second are rejected.
+ * This per-user table stays small, and is mirrored locally as a whole.
+ */
+@Component
+public class TokenRevocationStore {
+
+    public static final String REVOKED_TOKENS_MAP = "revoked-tokens";
+
+    public static final String REVOKED_SUBJECTS_MAP = "revoked-token-subjects";
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private final long expectedRevocations;
+
+    private final double falsePositiveProbability;
+
+    private final Duration maxTokenValidity;
+
+    /**
+     * The expiration of the revoked tokens, in epoch seconds, by {@code jti}.
+     */
+    private final IMap<String, Long> revokedTokens;
+
+    /**
+     * The revocation time of all the tokens of a user, in epoch seconds, by login.
+     */
+    private final IMap<String, Long> revokedSubjects;
+
+    private final Clock clock;
+
+    private final ConcurrentMap<String, Long> subjectRevocations = new ConcurrentHashMap<>();
+
+    private volatile TokenIdBloomFilter bloomFilter;
+
+    /**
+     * The filter being rebuilt by {@link #refresh()}, which must not miss the tokens revoked in the meantime.
+     */
+    private volatile TokenIdBloomFilter nextBloomFilter;
+
+    @Autowired
+    public TokenRevocationStore(
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this(
+            applicationProperties.getSecurity().getRevocation(),
+            Duration.ofSeconds(
+                Math.max(
+                    jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds(),
+                    jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe()
+                )
+            ),
+            hazelcastInstance.getMap(REVOKED_TOKENS_MAP),
+            hazelcastInstance.getMap(REVOKED_SUBJECTS_MAP),
+            Clock.systemUTC()
+        );
+    }
+
+    TokenRevocationStore(
+        ApplicationProperties.Security.Revocation properties,
+        Duration maxTokenValidity,
+        IMap<String, Long> revokedTokens,
+        IMap<String, Long> revokedSubjects,
+        Clock clock
+    ) {
+        this.expectedRevocations = properties.getExpectedRevocations();
+        this.falsePositiveProbability = properties.getFalsePositiveProbability();
+        this.maxTokenValidity = maxTokenValidity;
+        this.revokedTokens = revokedTokens;
+        this.revokedSubjects = revokedSubjects;
+        this.clock = clock;
+        this.bloomFilter = new TokenIdBloomFilter(expectedRevocations, falsePositiveProbability);
+        revokedTokens.addEntryListener((EntryAddedListener<String, Long>) event -> mirrorRevokedToken(event.getKey()), false);
+        revokedSubjects.addEntryListener(new SubjectRevocationListener(), true);
+        refresh();
+    }
+
+    /**
+     * Check, without any network call, whether the given token may have been revoked.
+     *
+     * @param verification the result of a successful {@link TokenProvider#verifyToken(String)}.
+     * @return false if the token is certainly not revoked, true if {@link #isRevoked(TokenVerificationResult)} must
+     * be called to know.
+     */
+    public boolean mightBeRevoked(TokenVerificationResult verification) {
+        if (isRevokedSubject(verification)) {
+            return true;
+        }
+        String tokenId = verification.getTokenId();
+        return tokenId != null && bloomFilter.mightContain(tokenId);
+    }
+
+    /**
+     * Check whether the given token was revoked, reading the Hazelcast map only when the local filter cannot tell.
+     *
+     * @param verification the result of a successful {@link TokenProvider#verifyToken(String)}.
+     * @return true if the token was revoked.
+     */
+    public Mono<Boolean> isRevoked(TokenVerificationResult verification) {
+        if (isRevokedSubject(verification)) {
+            return Mono.just(true);
+        }
+        String tokenId = verification.getTokenId();
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return Mono.just(false);
+        }
+        return Mono.fromCompletionStage(revokedTokens.getAsync(tokenId)).hasElement();
+    }
+
+    /**
+     * Check, without any network call, whether all the tokens of a user were revoked after the given time, such as
+     * to reject the refresh tokens issued before the revocation.
+     *
+     * @param subject the login of the user.
+     * @param issuedAt the time the token was issued.
+     * @return true if the token is revoked.
+     */
+    public boolean isRevoked(String subject, Instant issuedAt) {
+        Long revokedBefore = subjectRevocations.get(subject);
+        return revokedBefore != null && issuedAt.getEpochSecond() <= revokedBefore;
+    }
+
+    /**
+     * Revoke a single token until it expires.
+     *
+     * @param tokenId the {@code jti} of the token.
+     * @param expiration the expiration of the token.
+     * @return a {@link Mono} completing once the revocation is stored.
+     */
+    public Mono<Void> revoke(String tokenId, Instant expiration) {
+        long ttl = Duration.between(clock.instant(), expiration).getSeconds() + 1;
+        if (ttl <= 0) {
+            return Mono.empty();
+        }
+        log.debug("Revoking JWT {}", tokenId);
+        mirrorRevokedToken(tokenId);
+        return Mono.fromCompletionStage(revokedTokens.setAsync(tokenId, expiration.getEpochSecond(), ttl, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Revoke all the tokens issued to a user so far. The tokens issued after the current second are not affected.
+     *
+     * @param subject the login of the user.
+     * @return a {@link Mono} completing once the revocation is stored.
+     */
+    public Mono<Void> revokeAll(String subject) {
+        long revokedBefore = clock.instant().getEpochSecond();
+        log.debug("Revoking all the JWTs of {}", subject);
+        subjectRevocations.merge(subject, revokedBefore, Math::max);
+        // once the longest token validity has passed, no token issued before the revocation remains valid
+        return Mono.fromCompletionStage(
+            revokedSubjects.setAsync(subject, revokedBefore, maxTokenValidity.getSeconds(), TimeUnit.SECONDS)
+        );
+    }
+
+    /**
+     * Rebuild the local Bloom filter without the expired tokens, and resynchronize the per-user revocations.
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void refresh() {
+        TokenIdBloomFilter filter = new TokenIdBloomFilter(expectedRevocations, falsePositiveProbability);
+        nextBloomFilter = filter;
+        int revokedTokenCount = 0;
+        for (String tokenId : revokedTokens.keySet()) {
+            filter.put(tokenId);
+            revokedTokenCount++;
+        }
+        bloomFilter = filter;
+        nextBloomFilter = null;
+
+        Map<String, Long> revocations = new HashMap<>();
+        for (Map.Entry<String, Long> revocation : revokedSubjects.entrySet()) {
+            revocations.put(revocation.getKey(), revocation.getValue());
+        }
+        subjectRevocations.keySet().retainAll(revocations.keySet());
+        revocations.forEach((subject, revokedBefore) -> subjectRevocations.merge(subject, revokedBefore, Math::max));
+        log.debug("{} revoked JWTs, {} users with revoked JWTs", revokedTokenCount, revocations.size());
+    }
+
+    private boolean isRevokedSubject(TokenVerificationResult verification) {
+        String subject = verification.getAuthentication().getName();
+        Instant issuedAt = verification.getIssuedAt();
+        // tokens issued before the iat claim was introduced cannot be told apart, and are revoked as well
+        return issuedAt == null ? subjectRevocations.containsKey(subject) : isRevoked(subject, issuedAt);
+    }
+
+    private void mirrorRevokedToken(String tokenId) {
+        // read in the reverse order of the writes in refresh(), so that the rebuilt filter cannot miss the token
+        TokenIdBloomFilter next = nextBloomFilter;
+        bloomFilter.put(tokenId);
+        if (next != null) {
+            next.put(tokenId);
+        }
+    }
+
+    private class SubjectRevocationListener implements EntryAddedListener<String, Long>, EntryUpdatedListener<String, Long> {
+
+        @Override
+        public void entryAdded(EntryEvent<String, Long> event) {
+            subjectRevocations.merge(event.getKey(), event.getValue(), Math::max);
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<String, Long> event) {
+            subjectRevocations.merge(event.getKey(), event.getValue(), Math::max);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import java.time.Instant;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.Assert;
+
+/**
+ * Outcome of a single-pass JWT verification: either the {@link Authentication} built from the token claims, or the
+ * {@link FailureCause} explaining why the token was rejected.
+ */
+public final class TokenVerificationResult {
+
+    /**
+     * Reasons for which a token can be rejected.
+     */
+    public enum FailureCause {
+        EXPIRED,
+        UNSUPPORTED,
+        MALFORMED,
+        INVALID_SIGNATURE,
+        INVALID,
+    }
+
+    private final Authentication authentication;
+
+    private final String tokenId;
+
+    private final Instant issuedAt;
+
+    private final Instant expiration;
+
+    private final FailureCause failureCause;
+
+    private TokenVerificationResult(
+        Authentication authentication,
+        String tokenId,
+        Instant issuedAt,
+        Instant expiration,
+        FailureCause failureCause
+    ) {
+        this.authentication = authentication;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.failureCause = failureCause;
+    }
+
+    public static TokenVerificationResult success(Authentication authentication, String tokenId, Instant issuedAt, Instant expiration) {
+        Assert.notNull(authentication, "authentication is null");
+        return new TokenVerificationResult(authentication, tokenId, issuedAt, expiration, null);
+    }
+
+    public static TokenVerificationResult failure(FailureCause failureCause) {
+        Assert.notNull(failureCause, "failureCause is null");
+        return new TokenVerificationResult(null, null, null, null, failureCause);
+    }
+
+    public boolean isValid() {
+        return authentication != null;
+    }
+
+    /**
+     * @return the authentication built from the token, or {@code null} if the token was rejected.
+     */
+    public Authentication getAuthentication() {
+        return authentication;
+    }
+
+    /**
+     * @return the value of the {@code jti} claim, or {@code null} if the token was rejected or has no identifier.
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return the value of the {@code iat} claim, or {@code null} if the token was rejected or has no issue time.
+     */
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * @return the value of the {@code exp} claim, or {@code null} if the token was rejected or has no expiration.
+     */
+    public Instant getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * @return the reason why the token was rejected, or {@code null} if the token is valid.
+     */
+    public FailureCause getFailureCause() {
+        return failureCause;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "TokenVerificationResult{valid}" : "TokenVerificationResult{failureCause=" + failureCause + "}";
+    }
+}
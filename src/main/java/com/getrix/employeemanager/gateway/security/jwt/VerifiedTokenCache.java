@@ -0,0 +1,104 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, in-process cache of the verification results, and the {@link Authentication} they hold, of already
+ * verified JWTs.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token, and each entry expires at the {@code exp} claim of its token.
+ * Hit, miss and eviction counts are exported as the {@code cache.*} meters tagged with {@code cache=verified-tokens}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    public static final String CACHE_NAME = "verified-tokens";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final boolean enabled;
+
+    private final Cache<ByteBuffer, TokenVerificationResult> cache;
+
+    public VerifiedTokenCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.VerifiedTokenCache properties = applicationProperties.getSecurity().getVerifiedTokenCache();
+        this.enabled = properties.isEnabled();
+        this.cache =
+            Caffeine.newBuilder().maximumSize(properties.getMaximumSize()).expireAfter(new UntilTokenExpiration()).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get the successful verification of a token that was already verified.
+     *
+     * @param token the compact JWS.
+     * @return the cached verification, or {@code null} if the token is unknown or expired.
+     */
+    public TokenVerificationResult get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.getIfPresent(digest(token));
+    }
+
+    /**
+     * Remember the outcome of a successful verification until the token expires. Tokens without an {@code exp} claim
+     * are never cached.
+     *
+     * @param token the compact JWS.
+     * @param verification the result of {@link TokenProvider#verifyToken(String)}.
+     */
+    public void put(String token, TokenVerificationResult verification) {
+        if (!enabled || !verification.isValid() || verification.getExpiration() == null) {
+            return;
+        }
+        cache.put(digest(token), verification);
+    }
+
+    /**
+     * Drop every cached authentication, such as when a signing key is removed from the {@link JwtKeyRing}.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class UntilTokenExpiration implements Expiry<ByteBuffer, TokenVerificationResult> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, TokenVerificationResult value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpiration().toEpochMilli() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, TokenVerificationResult value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, TokenVerificationResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
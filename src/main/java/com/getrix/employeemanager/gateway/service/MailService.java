@@ -2,6 +2,9 @@ package com.getrix.employeemanager.gateway.service;
 
 import com.getrix.employeemanager.gateway.domain.User;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -62,21 +65,26 @@ public class MailService {
             content
         );
 
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
         try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
+            javaMailSender.send(createEmail(to, subject, content, isMultipart, isHtml));
             log.debug("Sent email to User '{}'", to);
         } catch (MailException | MessagingException e) {
             log.warn("Email could not be sent to user '{}'", to, e);
         }
     }
 
+    private MimeMessage createEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml)
+        throws MessagingException {
+        // Prepare message using a Spring helper
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
+        message.setTo(to);
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(subject);
+        message.setText(content, isHtml);
+        return mimeMessage;
+    }
+
     @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
@@ -84,12 +92,15 @@ public class MailService {
             return;
         }
         Locale locale = Locale.forLanguageTag(user.getLangKey());
+        String subject = messageSource.getMessage(titleKey, null, locale);
+        sendEmail(user.getEmail(), subject, renderTemplate(user, templateName, locale), false, true);
+    }
+
+    private String renderTemplate(User user, String templateName, Locale locale) {
         Context context = new Context(locale);
         context.setVariable(USER, user);
         context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        return templateEngine.process(templateName, context);
     }
 
     @Async
@@ -104,6 +115,39 @@ public class MailService {
         sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
     }
 
+    /**
+     * Send the creation emails of many users at once, over a single connection to the mail server.
+     *
+     * @param users the created users, those without an email being skipped.
+     */
+    @Async
+    public void sendCreationEmails(Collection<User> users) {
+        log.debug("Sending creation emails to {} users", users.size());
+        List<MimeMessage> messages = new ArrayList<>();
+        for (User user : users) {
+            if (user.getEmail() == null) {
+                continue;
+            }
+            Locale locale = Locale.forLanguageTag(user.getLangKey());
+            String subject = messageSource.getMessage("email.activation.title", null, locale);
+            String content = renderTemplate(user, "mail/creationEmail", locale);
+            try {
+                messages.add(createEmail(user.getEmail(), subject, content, false, true));
+            } catch (MessagingException e) {
+                log.warn("Email could not be sent to user '{}'", user.getEmail(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            javaMailSender.send(messages.toArray(new MimeMessage[0]));
+            log.debug("Sent {} creation emails", messages.size());
+        } catch (MailException e) {
+            log.warn("Creation emails could not all be sent", e);
+        }
+    }
+
     @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
@@ -0,0 +1,242 @@
+package com.getrix.employeemanager.gateway.service;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.getrix.employeemanager.gateway.domain.RefreshToken;
+import com.getrix.employeemanager.gateway.domain.User;
+import com.getrix.employeemanager.gateway.repository.RefreshTokenRepository;
+import com.getrix.employeemanager.gateway.repository.UserRepository;
+import com.getrix.employeemanager.gateway.security.AuthorityRegistry;
+import com.getrix.employeemanager.gateway.security.jwt.TokenProvider;
+import com.getrix.employeemanager.gateway.security.jwt.TokenRevocationStore;
+import com.getrix.employeemanager.gateway.service.dto.AuthenticationTokensDTO;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.crypto.codec.Hex;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service class for issuing and rotating refresh tokens.
+ * <p>
+ * A refresh token is exchanged for a new JWT without checking the password of the user again, which saves a BCrypt
+ * hash per session renewal. The tokens are opaque random strings, of which only the SHA-256 hash is stored, in the
+ * database and in a Hazelcast map read before it. Each token can be used once, and is replaced by the next token of
+ * its family: a token used twice means that it was stolen, so its whole family and the JWTs of its user are revoked.
+ * The refresh tokens of a user are revoked as well when all the JWTs of the user are, and when the password changes.
+ */
+@Service
+public class RefreshTokenService {
+
+    public static final String REFRESH_TOKENS_MAP = "refresh-tokens";
+
+    private static final int TOKEN_LENGTH = 32;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final TokenProvider tokenProvider;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    /**
+     * The unused refresh tokens, by hash.
+     */
+    private final IMap<String, RefreshToken> refreshTokens;
+
+    private final Duration tokenValidity;
+
+    private final Duration tokenValidityForRememberMe;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        UserRepository userRepository,
+        TokenProvider tokenProvider,
+        TokenRevocationStore tokenRevocationStore,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.refreshTokens = hazelcastInstance.getMap(REFRESH_TOKENS_MAP);
+        this.tokenValidity = applicationProperties.getSecurity().getRefreshToken().getTokenValidity();
+        this.tokenValidityForRememberMe = applicationProperties.getSecurity().getRefreshToken().getTokenValidityForRememberMe();
+    }
+
+    /**
+     * Issue the tokens of a user who just authenticated with a password, starting a new refresh token family.
+     *
+     * @param authentication the authentication of the user.
+     * @param rememberMe whether the tokens use the longer, remember-me, validity.
+     * @return the access and refresh tokens.
+     */
+    public Mono<AuthenticationTokensDTO> createTokens(Authentication authentication, boolean rememberMe) {
+        return userRepository
+            .findOneByLogin(authentication.getName())
+            .switchIfEmpty(Mono.error(() -> new BadCredentialsException("User " + authentication.getName() + " was not found")))
+            .flatMap(user -> createRefreshToken(user.getId(), UUID.randomUUID().toString(), rememberMe))
+            .map(refreshToken -> new AuthenticationTokensDTO(tokenProvider.createToken(authentication, rememberMe), refreshToken));
+    }
+
+    /**
+     * Exchange a refresh token for new tokens. The refresh token cannot be used anymore afterwards.
+     *
+     * @param refreshToken the refresh token.
+     * @return the new access and refresh tokens, or a {@link BadCredentialsException} if the refresh token is unknown,
+     * expired or already used.
+     */
+    public Mono<AuthenticationTokensDTO> refresh(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        return Mono
+            .fromCompletionStage(refreshTokens.getAsync(tokenHash))
+            .switchIfEmpty(Mono.defer(() -> refreshTokenRepository.findOneByTokenHash(tokenHash)))
+            .filter(token -> token.getExpiresAt().isAfter(Instant.now()))
+            .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid refresh token")))
+            .flatMap(token ->
+                (token.isUsed() ? Mono.just(0) : refreshTokenRepository.markUsed(token.getId())).flatMap(updated ->
+                        updated == 0 ? revokeFamily(token) : rotate(token)
+                    )
+            );
+    }
+
+    /**
+     * Revoke all the tokens issued so far to a user: the JWTs, and the refresh tokens of all the families.
+     *
+     * @param login the login of the user.
+     * @return a {@link Mono} completing once the tokens are revoked.
+     */
+    public Mono<Void> revokeAllTokens(String login) {
+        return tokenRevocationStore
+            .revokeAll(login)
+            .then(userRepository.findOneByLogin(login))
+            .flatMap(user -> revokeRefreshTokens(user.getId()));
+    }
+
+    /**
+     * Revoke the refresh tokens of all the families of a user, such as when the password of the user changes. The
+     * JWTs already issued remain valid until they expire.
+     *
+     * @param userId the id of the user.
+     * @return a {@link Mono} completing once the refresh tokens are revoked.
+     */
+    public Mono<Void> revokeRefreshTokens(Long userId) {
+        log.debug("Revoking the refresh tokens of User: {}", userId);
+        return refreshTokenRepository
+            .markAllUsedByUserId(userId)
+            // a cached token would still be marked used by refresh(), but reported as reused rather than revoked
+            .then(
+                Mono
+                    .fromRunnable(() -> refreshTokens.removeAll(Predicates.equal("userId", userId)))
+                    .subscribeOn(Schedulers.boundedElastic())
+            )
+            .then();
+    }
+
+    /**
+     * Not used refresh tokens should be removed once expired.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeExpiredTokens() {
+        refreshTokenRepository
+            .deleteAllByExpiresAtBefore(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC))
+            .subscribe(
+                count -> log.debug("Deleted {} expired refresh tokens", count),
+                e -> log.error("Failed to delete the expired refresh tokens", e)
+            );
+    }
+
+    private Mono<AuthenticationTokensDTO> rotate(RefreshToken token) {
+        return Mono
+            .fromCompletionStage(refreshTokens.removeAsync(token.getTokenHash()))
+            .then(userRepository.findOneWithAuthoritiesById(token.getUserId()))
+            .filter(User::isActivated)
+            .switchIfEmpty(Mono.error(() -> new BadCredentialsException("User of the refresh token is not activated")))
+            // closes the window where a refresh races with the revocation of all the tokens of its user
+            .filter(user -> !tokenRevocationStore.isRevoked(user.getLogin(), token.getIssuedAt()))
+            .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Refresh token was revoked")))
+            .flatMap(user -> {
+                List<GrantedAuthority> authorities = user
+                    .getAuthorities()
+                    .stream()
+                    .map(authority -> AuthorityRegistry.of(authority.getName()))
+                    .collect(Collectors.toList());
+                Authentication authentication = new UsernamePasswordAuthenticationToken(user.getLogin(), "", authorities);
+                return createRefreshToken(user.getId(), token.getFamilyId(), token.isRememberMe())
+                    .map(refreshToken ->
+                        new AuthenticationTokensDTO(tokenProvider.createToken(authentication, token.isRememberMe()), refreshToken)
+                    );
+            });
+    }
+
+    private Mono<AuthenticationTokensDTO> revokeFamily(RefreshToken token) {
+        log.warn("Reuse of refresh token {}, revoking its family {}", token.getId(), token.getFamilyId());
+        return refreshTokenRepository
+            .markFamilyUsed(token.getFamilyId())
+            .then(userRepository.findById(token.getUserId()))
+            .flatMap(user -> tokenRevocationStore.revokeAll(user.getLogin()))
+            .then(Mono.error(new BadCredentialsException("Refresh token was already used")));
+    }
+
+    private Mono<String> createRefreshToken(Long userId, String familyId, boolean rememberMe) {
+        byte[] bytes = new byte[TOKEN_LENGTH];
+        SECURE_RANDOM.nextBytes(bytes);
+        String token = BASE64_URL.encodeToString(bytes);
+        Duration validity = rememberMe ? tokenValidityForRememberMe : tokenValidity;
+        Instant now = Instant.now();
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserId(userId);
+        refreshToken.setRememberMe(rememberMe);
+        refreshToken.setIssuedAt(now);
+        refreshToken.setExpiresAt(now.plus(validity));
+        return refreshTokenRepository
+            .save(refreshToken)
+            .flatMap(saved ->
+                Mono.fromCompletionStage(refreshTokens.setAsync(saved.getTokenHash(), saved, validity.getSeconds(), TimeUnit.SECONDS))
+            )
+            .thenReturn(token);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return new String(Hex.encode(digest.digest(token.getBytes(StandardCharsets.UTF_8))));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.getrix.employeemanager.gateway.service;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.getrix.employeemanager.gateway.repository.UserRepository;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the total of users in memory, so that paging through the users does not count them all on every page.
+ * <p>
+ * The total is counted on first use, adjusted by the users created and deleted through {@link UserService}, and
+ * recounted every {@code application.user-count.reconcile-period} to catch up with the users created or deleted
+ * elsewhere - by the other instances of the gateway, or by rolled back transactions. It is approximate in between.
+ * With {@code application.user-count.planner-estimate}, it is recounted from the estimate of the PostgreSQL planner
+ * rather than by counting all the users.
+ */
+@Service
+public class UserCountService {
+
+    private static final long UNKNOWN = -1;
+
+    private final Logger log = LoggerFactory.getLogger(UserCountService.class);
+
+    private final UserRepository userRepository;
+
+    private final ApplicationProperties.UserCount properties;
+
+    private final AtomicLong total = new AtomicLong(UNKNOWN);
+
+    public UserCountService(UserRepository userRepository, ApplicationProperties applicationProperties) {
+        this.userRepository = userRepository;
+        this.properties = applicationProperties.getUserCount();
+    }
+
+    /**
+     * @return the total of users, only counted if it is not known yet.
+     */
+    public Mono<Long> getCount() {
+        long count = total.get();
+        return count != UNKNOWN ? Mono.just(count) : recount();
+    }
+
+    /**
+     * Adjust the total of users, once it is known.
+     * @param delta the number of users created, or minus the number of users deleted.
+     */
+    public void add(long delta) {
+        total.getAndUpdate(count -> count == UNKNOWN ? UNKNOWN : Math.max(0, count + delta));
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.user-count.reconcile-period:PT5M}",
+        initialDelayString = "${application.user-count.reconcile-period:PT5M}"
+    )
+    public void reconcile() {
+        recount()
+            .subscribe(count -> log.debug("Reconciled the total of users: {}", count), e -> log.warn("Could not count the users", e));
+    }
+
+    /**
+     * Count the users again, replacing the total kept so far.
+     * @return the total of users.
+     */
+    public Mono<Long> recount() {
+        Mono<Long> count = properties.isPlannerEstimate()
+            ? userRepository.estimateCount().filter(estimate -> estimate > 0).switchIfEmpty(Mono.defer(userRepository::count))
+            : userRepository.count();
+        return count.doOnNext(total::set);
+    }
+}
@@ -0,0 +1,272 @@
+package com.getrix.employeemanager.gateway.service;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.getrix.employeemanager.gateway.config.Constants;
+import com.getrix.employeemanager.gateway.domain.Authority;
+import com.getrix.employeemanager.gateway.domain.User;
+import com.getrix.employeemanager.gateway.repository.AuthorityRepository;
+import com.getrix.employeemanager.gateway.repository.UserRepository;
+import com.getrix.employeemanager.gateway.security.RehashingPasswordEncoder;
+import com.getrix.employeemanager.gateway.security.SecurityUtils;
+import com.getrix.employeemanager.gateway.service.dto.AdminUserDTO;
+import com.getrix.employeemanager.gateway.service.dto.UserImportResultDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Service class for importing many users at once.
+ * <p>
+ * The users are imported by chunks of {@code application.user-import.chunk-size} rows, read from the stream as the
+ * previous chunk is done so that an import of any size runs in constant memory. In each chunk, the rows are validated
+ * in parallel, checked for logins and emails already used - by a previous row, or by a user found by a single lookup
+ * of all the logins, and a single lookup of all the emails - then the new users are inserted with their authorities
+ * in a single transaction, and their creation emails are sent at once.
+ * <p>
+ * The rows are exported as the {@code user.import.rows} counter, tagged with their status, and the chunks as the
+ * {@code user.import.chunks} timer.
+ */
+@Service
+public class UserImportService {
+
+    private final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final UserCountService userCountService;
+
+    private final MailService mailService;
+
+    private final Validator validator;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties.UserImport properties;
+
+    private final Map<UserImportResultDTO.Status, Counter> rowCounters = new EnumMap<>(UserImportResultDTO.Status.class);
+
+    private final Timer chunkTimer;
+
+    public UserImportService(
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        UserCountService userCountService,
+        MailService mailService,
+        Validator validator,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.userCountService = userCountService;
+        this.mailService = mailService;
+        this.validator = validator;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = applicationProperties.getUserImport();
+        for (UserImportResultDTO.Status status : UserImportResultDTO.Status.values()) {
+            rowCounters.put(
+                status,
+                Counter
+                    .builder("user.import.rows")
+                    .description("The rows of the user imports")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry)
+            );
+        }
+        this.chunkTimer = Timer.builder("user.import.chunks").description("The chunks of users imported").register(meterRegistry);
+    }
+
+    /**
+     * Create new users, activated with a reset key as by {@link UserService#createUser(AdminUserDTO)}: their ids are
+     * ignored, and so are their unknown authorities.
+     * <p>
+     * The users get a password which never matches, rather than the hash of a random password, so that importing them
+     * costs no hashing: they set their own password with the reset key of their creation email.
+     *
+     * @param users the users to create.
+     * @return the outcome of each row, in the order of the rows.
+     */
+    public Flux<UserImportResultDTO> importUsers(Flux<AdminUserDTO> users) {
+        Mono<String> currentLogin = SecurityUtils.getCurrentUserLogin().switchIfEmpty(Mono.just(Constants.SYSTEM));
+        Mono<Set<String>> authorityNames = authorityRepository.findAll().map(Authority::getName).collect(Collectors.toSet());
+        return Mono
+            .zip(currentLogin, authorityNames)
+            .flatMapMany(context ->
+                users
+                    .index((index, user) -> new ImportRow(index + 1, user))
+                    .buffer(properties.getChunkSize())
+                    .concatMap(rows -> importChunk(rows, context.getT1(), context.getT2()))
+            );
+    }
+
+    private Flux<UserImportResultDTO> importChunk(List<ImportRow> rows, String login, Set<String> authorityNames) {
+        return Mono
+            .defer(() -> {
+                Timer.Sample sample = Timer.start();
+                return Flux
+                    .fromIterable(rows)
+                    .flatMapSequential(row -> Mono.fromRunnable(() -> validate(row)).subscribeOn(Schedulers.parallel()))
+                    .then(Mono.defer(() -> rejectDuplicates(rows)))
+                    .then(Mono.defer(() -> insert(rows, login, authorityNames)))
+                    .doOnSuccess(inserted -> sample.stop(chunkTimer));
+            })
+            .thenMany(Flux.fromIterable(rows))
+            .map(ImportRow::toResult)
+            .doOnNext(result -> rowCounters.get(result.getStatus()).increment());
+    }
+
+    private void validate(ImportRow row) {
+        Set<ConstraintViolation<AdminUserDTO>> violations = validator.validate(row.user);
+        if (!violations.isEmpty()) {
+            row.reject(
+                UserImportResultDTO.Status.INVALID,
+                violations
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "))
+            );
+        }
+    }
+
+    private Mono<Void> rejectDuplicates(List<ImportRow> rows) {
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.status != null) {
+                continue;
+            }
+            if (!logins.add(row.login())) {
+                row.reject(UserImportResultDTO.Status.DUPLICATE, "Login already imported by a previous row");
+            } else if (row.email() != null && !emails.add(row.email())) {
+                row.reject(UserImportResultDTO.Status.DUPLICATE, "Email already imported by a previous row");
+            }
+        }
+        return Mono
+            .zip(
+                userRepository.findExistingLogins(logins).collect(Collectors.toSet()),
+                userRepository.findExistingEmails(emails).collect(Collectors.toSet())
+            )
+            .doOnNext(existing -> {
+                for (ImportRow row : rows) {
+                    if (row.status != null) {
+                        continue;
+                    }
+                    if (existing.getT1().contains(row.login())) {
+                        row.reject(UserImportResultDTO.Status.DUPLICATE, "Login name already used!");
+                    } else if (row.email() != null && existing.getT2().contains(row.email())) {
+                        row.reject(UserImportResultDTO.Status.DUPLICATE, "Email is already in use!");
+                    }
+                }
+            })
+            .then();
+    }
+
+    private Mono<Integer> insert(List<ImportRow> rows, String login, Set<String> authorityNames) {
+        List<ImportRow> newRows = rows.stream().filter(row -> row.status == null).collect(Collectors.toList());
+        if (newRows.isEmpty()) {
+            return Mono.just(0);
+        }
+        return Mono
+            .fromCallable(() -> newRows.stream().map(row -> row.toUser(login, authorityNames)).collect(Collectors.toList()))
+            // the random keys are drawn from a SecureRandom, which may block
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(users ->
+                transactionalOperator
+                    .transactional(userRepository.insertUsersWithAuthorities(users))
+                    .doOnNext(inserted -> {
+                        newRows.forEach(row -> row.status = UserImportResultDTO.Status.CREATED);
+                        userCountService.add(inserted);
+                        mailService.sendCreationEmails(users);
+                        log.debug("Imported {} users", inserted);
+                    })
+            )
+            .onErrorResume(e -> {
+                log.warn("Could not import a chunk of {} users", newRows.size(), e);
+                newRows.forEach(row -> row.reject(UserImportResultDTO.Status.FAILED, "The users of this chunk could not be created"));
+                return Mono.just(0);
+            });
+    }
+
+    /**
+     * A row of an import, and its outcome once known.
+     */
+    private static class ImportRow {
+
+        private final long index;
+
+        private final AdminUserDTO user;
+
+        private volatile UserImportResultDTO.Status status;
+
+        private volatile String message;
+
+        ImportRow(long index, AdminUserDTO user) {
+            this.index = index;
+            this.user = user;
+        }
+
+        String login() {
+            return user.getLogin().toLowerCase();
+        }
+
+        String email() {
+            return user.getEmail() != null ? user.getEmail().toLowerCase() : null;
+        }
+
+        void reject(UserImportResultDTO.Status status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        User toUser(String createdBy, Set<String> authorityNames) {
+            User newUser = new User();
+            newUser.setLogin(login());
+            newUser.setPassword(RehashingPasswordEncoder.unusablePassword());
+            newUser.setFirstName(user.getFirstName());
+            newUser.setLastName(user.getLastName());
+            newUser.setEmail(email());
+            newUser.setImageUrl(user.getImageUrl());
+            newUser.setLangKey(user.getLangKey() != null ? user.getLangKey() : Constants.DEFAULT_LANGUAGE);
+            newUser.setActivated(true);
+            newUser.setResetKey(RandomUtil.generateResetKey());
+            newUser.setResetDate(Instant.now());
+            newUser.setCreatedBy(createdBy);
+            newUser.setLastModifiedBy(createdBy);
+            if (user.getAuthorities() != null) {
+                for (String name : user.getAuthorities()) {
+                    if (authorityNames.contains(name)) {
+                        Authority authority = new Authority();
+                        authority.setName(name);
+                        newUser.getAuthorities().add(authority);
+                    }
+                }
+            }
+            return newUser;
+        }
+
+        UserImportResultDTO toResult() {
+            return new UserImportResultDTO(index, user.getLogin(), status, message);
+        }
+    }
+}
@@ -1,30 +1,39 @@
 package com.getrix.employeemanager.gateway.service;
 
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
 import com.getrix.employeemanager.gateway.config.Constants;
 import com.getrix.employeemanager.gateway.domain.Authority;
 import com.getrix.employeemanager.gateway.domain.User;
 import com.getrix.employeemanager.gateway.repository.AuthorityRepository;
+import com.getrix.employeemanager.gateway.repository.UserCursor;
 import com.getrix.employeemanager.gateway.repository.UserRepository;
 import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import com.getrix.employeemanager.gateway.security.PasswordHashingScheduler;
 import com.getrix.employeemanager.gateway.security.SecurityUtils;
 import com.getrix.employeemanager.gateway.service.dto.AdminUserDTO;
 import com.getrix.employeemanager.gateway.service.dto.UserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple3;
+import reactor.util.function.Tuples;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -39,20 +48,45 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
     private final AuthorityRepository authorityRepository;
 
-    private final CacheManager cacheManager;
+    private final ApplicationProperties.UserPurge userPurgeProperties;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final UserCountService userCountService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final Counter purgedUsersCounter;
+
+    private final Timer purgeChunkTimer;
 
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
+        PasswordHashingScheduler passwordHashingScheduler,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        ApplicationProperties applicationProperties,
+        TransactionalOperator transactionalOperator,
+        UserCountService userCountService,
+        RefreshTokenService refreshTokenService,
+        MeterRegistry meterRegistry
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
         this.authorityRepository = authorityRepository;
-        this.cacheManager = cacheManager;
+        this.userPurgeProperties = applicationProperties.getUserPurge();
+        this.transactionalOperator = transactionalOperator;
+        this.userCountService = userCountService;
+        this.refreshTokenService = refreshTokenService;
+        this.purgedUsersCounter =
+            Counter.builder("user.purge.deleted").description("The number of not activated users deleted").register(meterRegistry);
+        this.purgeChunkTimer =
+            Timer.builder("user.purge.chunks").description("The chunks of not activated users deleted").register(meterRegistry);
     }
 
     @Transactional
@@ -66,7 +100,7 @@ public class UserService {
                 user.setActivationKey(null);
                 return saveUser(user);
             })
-            .doOnNext(this::clearUserCaches)
+            .flatMap(this::clearUserCaches)
             .doOnNext(user -> log.debug("Activated user: {}", user));
     }
 
@@ -76,15 +110,19 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minus(1, ChronoUnit.DAYS)))
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                user.setPassword(passwordEncoder.encode(newPassword));
-                user.setResetKey(null);
-                user.setResetDate(null);
-                return user;
-            })
+            .flatMap(user ->
+                passwordHashingScheduler
+                    .schedule(() -> passwordEncoder.encode(newPassword))
+                    .map(encryptedPassword -> {
+                        user.setPassword(encryptedPassword);
+                        user.setResetKey(null);
+                        user.setResetDate(null);
+                        return user;
+                    })
+            )
             .flatMap(this::saveUser)
-            .doOnNext(this::clearUserCaches);
+            .flatMap(user -> refreshTokenService.revokeRefreshTokens(user.getId()).thenReturn(user))
+            .flatMap(this::clearUserCaches);
     }
 
     @Transactional
@@ -99,7 +137,7 @@ public class UserService {
                 return user;
             })
             .flatMap(this::saveUser)
-            .doOnNext(this::clearUserCaches);
+            .flatMap(this::clearUserCaches);
     }
 
     @Transactional
@@ -108,8 +146,10 @@ public class UserService {
             .findOneByLogin(userDTO.getLogin().toLowerCase())
             .flatMap(existingUser -> {
                 if (!existingUser.isActivated()) {
-                    this.clearUserCaches(existingUser);
-                    return userRepository.delete(existingUser);
+                    return userRepository
+                        .delete(existingUser)
+                        .doOnSuccess(deleted -> userCountService.add(-1))
+                        .then(clearUserCaches(existingUser));
                 } else {
                     return Mono.error(new UsernameAlreadyUsedException());
                 }
@@ -117,34 +157,33 @@ public class UserService {
             .then(userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()))
             .flatMap(existingUser -> {
                 if (!existingUser.isActivated()) {
-                    this.clearUserCaches(existingUser);
-                    return userRepository.delete(existingUser);
+                    return userRepository
+                        .delete(existingUser)
+                        .doOnSuccess(deleted -> userCountService.add(-1))
+                        .then(clearUserCaches(existingUser));
                 } else {
                     return Mono.error(new EmailAlreadyUsedException());
                 }
             })
-            .publishOn(Schedulers.boundedElastic())
-            .then(
-                Mono.fromCallable(() -> {
-                    User newUser = new User();
-                    String encryptedPassword = passwordEncoder.encode(password);
-                    newUser.setLogin(userDTO.getLogin().toLowerCase());
-                    // new user gets initially a generated password
-                    newUser.setPassword(encryptedPassword);
-                    newUser.setFirstName(userDTO.getFirstName());
-                    newUser.setLastName(userDTO.getLastName());
-                    if (userDTO.getEmail() != null) {
-                        newUser.setEmail(userDTO.getEmail().toLowerCase());
-                    }
-                    newUser.setImageUrl(userDTO.getImageUrl());
-                    newUser.setLangKey(userDTO.getLangKey());
-                    // new user is not active
-                    newUser.setActivated(false);
-                    // new user gets registration key
-                    newUser.setActivationKey(RandomUtil.generateActivationKey());
-                    return newUser;
-                })
-            )
+            .then(passwordHashingScheduler.schedule(() -> passwordEncoder.encode(password)))
+            .map(encryptedPassword -> {
+                User newUser = new User();
+                newUser.setLogin(userDTO.getLogin().toLowerCase());
+                // new user gets initially a generated password
+                newUser.setPassword(encryptedPassword);
+                newUser.setFirstName(userDTO.getFirstName());
+                newUser.setLastName(userDTO.getLastName());
+                if (userDTO.getEmail() != null) {
+                    newUser.setEmail(userDTO.getEmail().toLowerCase());
+                }
+                newUser.setImageUrl(userDTO.getImageUrl());
+                newUser.setLangKey(userDTO.getLangKey());
+                // new user is not active
+                newUser.setActivated(false);
+                // new user gets registration key
+                newUser.setActivationKey(RandomUtil.generateActivationKey());
+                return newUser;
+            })
             .flatMap(newUser -> {
                 Set<Authority> authorities = new HashSet<>();
                 return authorityRepository
@@ -153,7 +192,8 @@ public class UserService {
                     .thenReturn(newUser)
                     .doOnNext(user -> user.setAuthorities(authorities))
                     .flatMap(this::saveUser)
-                    .doOnNext(this::clearUserCaches)
+                    .doOnNext(user -> userCountService.add(1))
+                    .flatMap(this::clearUserCaches)
                     .doOnNext(user -> log.debug("Created Information for User: {}", user));
             });
     }
@@ -178,17 +218,22 @@ public class UserService {
             .flatMap(authorityRepository::findById)
             .doOnNext(authority -> user.getAuthorities().add(authority))
             .then(Mono.just(user))
+            .flatMap(newUser ->
+                passwordHashingScheduler
+                    .schedule(() -> passwordEncoder.encode(RandomUtil.generatePassword()))
+                    .doOnNext(newUser::setPassword)
+                    .thenReturn(newUser)
+            )
             .publishOn(Schedulers.boundedElastic())
             .map(newUser -> {
-                String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
-                newUser.setPassword(encryptedPassword);
                 newUser.setResetKey(RandomUtil.generateResetKey());
                 newUser.setResetDate(Instant.now());
                 newUser.setActivated(true);
                 return newUser;
             })
             .flatMap(this::saveUser)
-            .doOnNext(this::clearUserCaches)
+            .doOnNext(user1 -> userCountService.add(1))
+            .flatMap(this::clearUserCaches)
             .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
     }
 
@@ -202,8 +247,8 @@ public class UserService {
     public Mono<AdminUserDTO> updateUser(AdminUserDTO userDTO) {
         return userRepository
             .findById(userDTO.getId())
+            .flatMap(this::clearUserCaches)
             .flatMap(user -> {
-                this.clearUserCaches(user);
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -215,15 +260,14 @@ public class UserService {
                 user.setLangKey(userDTO.getLangKey());
                 Set<Authority> managedAuthorities = user.getAuthorities();
                 managedAuthorities.clear();
-                return userRepository
-                    .deleteUserAuthorities(user.getId())
-                    .thenMany(Flux.fromIterable(userDTO.getAuthorities()))
+                return Flux
+                    .fromIterable(userDTO.getAuthorities())
                     .flatMap(authorityRepository::findById)
                     .map(managedAuthorities::add)
                     .then(Mono.just(user));
             })
-            .flatMap(this::saveUser)
-            .doOnNext(this::clearUserCaches)
+            .flatMap(user -> saveUser(user, true))
+            .flatMap(this::clearUserCaches)
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .map(AdminUserDTO::new);
     }
@@ -233,7 +277,8 @@ public class UserService {
         return userRepository
             .findOneByLogin(login)
             .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(this::clearUserCaches)
+            .doOnNext(user -> userCountService.add(-1))
+            .flatMap(this::clearUserCaches)
             .doOnNext(user -> log.debug("Deleted User: {}", user))
             .then();
     }
@@ -263,13 +308,25 @@ public class UserService {
                 user.setImageUrl(imageUrl);
                 return saveUser(user);
             })
-            .doOnNext(this::clearUserCaches)
+            .flatMap(this::clearUserCaches)
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .then();
     }
 
     @Transactional
     public Mono<User> saveUser(User user) {
+        return saveUser(user, false);
+    }
+
+    /**
+     * Save a user, and link it to its authorities.
+     *
+     * @param user the user to save.
+     * @param replaceAuthorities true if the authorities of the user replace the saved ones, in which case only the
+     * links which changed are written; false if they are added to the saved ones.
+     * @return the saved user.
+     */
+    private Mono<User> saveUser(User user, boolean replaceAuthorities) {
         return SecurityUtils
             .getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM))
@@ -282,12 +339,13 @@ public class UserService {
                 // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
                 return userRepository
                     .save(user)
-                    .flatMap(savedUser ->
-                        Flux
-                            .fromIterable(user.getAuthorities())
-                            .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                            .then(Mono.just(savedUser))
-                    );
+                    .flatMap(savedUser -> {
+                        List<String> authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toList());
+                        Mono<Integer> links = replaceAuthorities
+                            ? userRepository.updateUserAuthorities(savedUser.getId(), authorities)
+                            : userRepository.saveUserAuthorities(savedUser.getId(), authorities);
+                        return links.thenReturn(savedUser);
+                    });
             });
     }
 
@@ -296,18 +354,23 @@ public class UserService {
         return SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                String currentEncryptedPassword = user.getPassword();
-                if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
-                    throw new InvalidPasswordException();
-                }
-                String encryptedPassword = passwordEncoder.encode(newPassword);
-                user.setPassword(encryptedPassword);
-                return user;
-            })
+            .flatMap(user ->
+                passwordHashingScheduler
+                    .schedule(() -> {
+                        String currentEncryptedPassword = user.getPassword();
+                        if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
+                            throw new InvalidPasswordException();
+                        }
+                        return passwordEncoder.encode(newPassword);
+                    })
+                    .map(encryptedPassword -> {
+                        user.setPassword(encryptedPassword);
+                        return user;
+                    })
+            )
             .flatMap(this::saveUser)
-            .doOnNext(this::clearUserCaches)
+            .flatMap(user -> refreshTokenService.revokeRefreshTokens(user.getId()).thenReturn(user))
+            .flatMap(this::clearUserCaches)
             .doOnNext(user -> log.debug("Changed password for User: {}", user))
             .then();
     }
@@ -322,9 +385,51 @@ public class UserService {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    /**
+     * Get a page of users, seeking from a cursor rather than skipping the previous pages.
+     *
+     * @param cursor the position of the page.
+     * @param size the maximum number of users.
+     * @return the users following the cursor, with their authorities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<AdminUserDTO> getAllManagedUsers(UserCursor cursor, int size) {
+        return userRepository.findAllWithAuthorities(cursor, size).map(AdminUserDTO::new);
+    }
+
+    /**
+     * Get a page of activated users, seeking from a cursor rather than skipping the previous pages.
+     *
+     * @param cursor the position of the page.
+     * @param size the maximum number of users.
+     * @return the activated users following the cursor.
+     */
+    @Transactional(readOnly = true)
+    public Flux<UserDTO> getAllPublicUsers(UserCursor cursor, int size) {
+        return userRepository.findAllByActivatedIsTrue(cursor, size).map(UserDTO::new);
+    }
+
+    /**
+     * Stream all the users by id, as they are read from the database, so that the whole directory is never held in
+     * memory.
+     *
+     * @param modifiedSince the earliest last modification of the users, or null for all the users.
+     * @return the users, with their authorities.
+     */
     @Transactional(readOnly = true)
+    public Flux<AdminUserDTO> exportManagedUsers(Instant modifiedSince) {
+        LocalDateTime dateTime = modifiedSince != null ? LocalDateTime.ofInstant(modifiedSince, ZoneOffset.UTC) : null;
+        return userRepository.findAllWithAuthoritiesModifiedSince(dateTime).map(AdminUserDTO::new);
+    }
+
+    /**
+     * Get the total of users, as kept in memory by the {@link UserCountService}: it may lag behind the users created
+     * or deleted by the other instances until they are counted again.
+     *
+     * @return the total of users.
+     */
     public Mono<Long> countManagedUsers() {
-        return userRepository.count();
+        return userCountService.getCount();
     }
 
     @Transactional(readOnly = true)
@@ -340,22 +445,58 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am), and runs in the background.
      */
     @Scheduled(cron = "0 0 1 * * ?")
     public void removeNotActivatedUsers() {
-        removeNotActivatedUsersReactively().blockLast();
+        removeNotActivatedUsersReactively()
+            .subscribe(
+                count -> log.info("Deleted {} not activated users", count),
+                e -> log.error("Failed to delete the not activated users", e)
+            );
     }
 
-    @Transactional
-    public Flux<User> removeNotActivatedUsersReactively() {
-        return userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
-                LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC)
+    /**
+     * Delete the users not activated within 3 days, by chunks of {@code application.user-purge.chunk-size} users, each
+     * deleted with one statement per table in its own transaction, so that a spam registration wave never holds its
+     * locks for long. The progress is exported as the {@code user.purge.deleted} counter and the
+     * {@code user.purge.chunks} timer.
+     * @return the number of deleted users.
+     */
+    public Mono<Long> removeNotActivatedUsersReactively() {
+        LocalDateTime createdBefore = LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC);
+        int chunkSize = userPurgeProperties.getChunkSize();
+        return removeNotActivatedUsersChunk(createdBefore, 0L, chunkSize)
+            .expand(chunk ->
+                chunk.getT2() < chunkSize ? Mono.empty() : removeNotActivatedUsersChunk(createdBefore, chunk.getT1(), chunkSize)
             )
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(this::clearUserCaches)
-            .doOnNext(user -> log.debug("Deleted User: {}", user));
+            .reduce(0L, (count, chunk) -> count + chunk.getT3());
+    }
+
+    /**
+     * @return the last id of the chunk, the number of users it selected, and the number of them deleted.
+     */
+    private Mono<Tuple3<Long, Integer, Integer>> removeNotActivatedUsersChunk(LocalDateTime createdBefore, Long afterId, int chunkSize) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return userRepository
+                .findNotActivatedUsersCreatedBefore(createdBefore, afterId, chunkSize)
+                .collectList()
+                .filter(users -> !users.isEmpty())
+                .flatMap(users ->
+                    transactionalOperator
+                        .transactional(userRepository.deleteNotActivatedUsers(users.stream().map(User::getId).collect(Collectors.toList())))
+                        .flatMap(deleted -> userRepository.clearUserCaches(users).thenReturn(deleted))
+                        .map(deleted -> {
+                            Long lastId = users.get(users.size() - 1).getId();
+                            sample.stop(purgeChunkTimer);
+                            purgedUsersCounter.increment(deleted);
+                            userCountService.add(-deleted);
+                            log.debug("Deleted {} not activated users, up to id {}", deleted, lastId);
+                            return Tuples.of(lastId, users.size(), deleted);
+                        })
+                );
+        });
     }
 
     /**
@@ -367,10 +508,7 @@ public class UserService {
         return authorityRepository.findAll().map(Authority::getName);
     }
 
-    private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
-        if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
-        }
+    private Mono<User> clearUserCaches(User user) {
+        return userRepository.clearUserCaches(user).thenReturn(user);
     }
 }
@@ -0,0 +1,30 @@
+package com.getrix.employeemanager.gateway.service.dto;
+
+/**
+ * A DTO representing the tokens issued to an authenticated user - the JWT access token and the opaque refresh token.
+ */
+public class AuthenticationTokensDTO {
+
+    private final String accessToken;
+
+    private final String refreshToken;
+
+    public AuthenticationTokensDTO(String accessToken, String refreshToken) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    @Override
+    public String toString() {
+        // the tokens are credentials, and must not be logged
+        return "AuthenticationTokensDTO{}";
+    }
+}
@@ -0,0 +1,79 @@
+package com.getrix.employeemanager.gateway.service.dto;
+
+/**
+ * A DTO representing the outcome of importing one row of a user import.
+ */
+public class UserImportResultDTO {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        DUPLICATE,
+        FAILED,
+    }
+
+    private long row;
+
+    private String login;
+
+    private Status status;
+
+    private String message;
+
+    public UserImportResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public UserImportResultDTO(long row, String login, Status status, String message) {
+        this.row = row;
+        this.login = login;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * @return the position of the row in the import, starting at 1.
+     */
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserImportResultDTO{" +
+            "row=" + row +
+            ", login='" + login + '\'' +
+            ", status=" + status +
+            ", message='" + message + '\'' +
+            "}";
+    }
+}
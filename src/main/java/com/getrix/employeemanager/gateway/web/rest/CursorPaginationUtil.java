@@ -0,0 +1,80 @@
+package com.getrix.employeemanager.gateway.web.rest;
+
+import com.getrix.employeemanager.gateway.repository.UserCursor;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for handling cursor pagination, where each page links to the next one instead of counting them all.
+ */
+final class CursorPaginationUtil {
+
+    static final String CURSOR_PARAMETER = "cursor";
+
+    static final String HEADER_X_NEXT_CURSOR = "X-Next-Cursor";
+
+    private CursorPaginationUtil() {}
+
+    /**
+     * Get a page of users by cursor. A full page links to the next one, which starts after its last user.
+     *
+     * @param request the current request.
+     * @param pageable the size and the sort of the page.
+     * @param cursor empty for the first page, or the {@code X-Next-Cursor} of the previous page.
+     * @param fetch the users following a cursor, at most the given number of them.
+     * @param id the id of a user.
+     * @param login the login of a user.
+     * @param <T> the type of the users.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users of the page, or with
+     * status {@code 400 (Bad Request)} if the cursor is invalid.
+     */
+    static <T> Mono<ResponseEntity<Flux<T>>> getPageByCursor(
+        ServerHttpRequest request,
+        Pageable pageable,
+        String cursor,
+        BiFunction<UserCursor, Integer, Flux<T>> fetch,
+        Function<T, Long> id,
+        Function<T, String> login
+    ) {
+        UserCursor userCursor;
+        try {
+            userCursor = cursor.isEmpty() ? UserCursor.first(pageable.getSort()) : UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return fetch
+            .apply(userCursor, pageable.getPageSize())
+            .collectList()
+            .map(users -> {
+                if (users.size() < pageable.getPageSize()) {
+                    return ResponseEntity.ok().body(Flux.fromIterable(users));
+                }
+                T last = users.get(users.size() - 1);
+                String nextCursor = userCursor.after(id.apply(last), login.apply(last)).encode();
+                HttpHeaders headers = generateCursorPaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), nextCursor);
+                return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(users));
+            });
+    }
+
+    /**
+     * Generate the pagination headers of a page which is followed by another one.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param nextCursor the opaque cursor of the next page.
+     * @return the {@link HttpHeaders} with the cursor, and the link to the next page.
+     */
+    static HttpHeaders generateCursorPaginationHttpHeaders(UriComponentsBuilder uriBuilder, String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_X_NEXT_CURSOR, nextCursor);
+        headers.add(HttpHeaders.LINK, "<" + uriBuilder.replaceQueryParam(CURSOR_PARAMETER, nextCursor).toUriString() + ">; rel=\"next\"");
+        return headers;
+    }
+}
@@ -0,0 +1,37 @@
+package com.getrix.employeemanager.gateway.web.rest;
+
+import com.getrix.employeemanager.gateway.security.jwt.JwtKeyRing;
+import java.util.Map;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller publishing the public keys used to sign the JWTs, so that the services behind the gateway can verify
+ * the tokens locally.
+ */
+@RestController
+public class JwksResource {
+
+    private final JwtKeyRing keyRing;
+
+    public JwksResource(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * {@code GET  /.well-known/jwks.json} : get the JSON Web Key Set of the gateway.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the JWKS, or with status
+     * {@code 404 (Not Found)} if the tokens are signed with a shared secret.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        if (!keyRing.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.maxAge(keyRing.getJwksCacheDuration()).cachePublic()).body(keyRing.getJwks());
+    }
+}
@@ -42,17 +42,30 @@ public class PublicUserResource {
      *
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
+     * @param cursor the position of the page: empty for the first page, or the {@code X-Next-Cursor} of the previous
+     * page. Without it, the page is found by its number and the users are counted.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     public Mono<ResponseEntity<Flux<UserDTO>>> getAllPublicUsers(
         ServerHttpRequest request,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = CursorPaginationUtil.CURSOR_PARAMETER, required = false) String cursor
     ) {
         log.debug("REST request to get all public User names");
         if (!onlyContainsAllowedProperties(pageable)) {
             return Mono.just(ResponseEntity.badRequest().build());
         }
+        if (cursor != null) {
+            return CursorPaginationUtil.getPageByCursor(
+                request,
+                pageable,
+                cursor,
+                userService::getAllPublicUsers,
+                UserDTO::getId,
+                UserDTO::getLogin
+            );
+        }
 
         return userService
             .countManagedUsers()
@@ -0,0 +1,83 @@
+package com.getrix.employeemanager.gateway.web.rest;
+
+import com.getrix.employeemanager.gateway.config.Constants;
+import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import com.getrix.employeemanager.gateway.security.jwt.TokenProvider;
+import com.getrix.employeemanager.gateway.security.jwt.TokenRevocationStore;
+import com.getrix.employeemanager.gateway.security.jwt.TokenVerificationResult;
+import com.getrix.employeemanager.gateway.service.RefreshTokenService;
+import com.getrix.employeemanager.gateway.web.rest.errors.BadRequestAlertException;
+import com.getrix.employeemanager.gateway.web.rest.vm.TokenRevocationVM;
+import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for revoking JWTs before they expire.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class TokenRevocationResource {
+
+    private static final String ENTITY_NAME = "token";
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationResource.class);
+
+    private final TokenProvider tokenProvider;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    private final RefreshTokenService refreshTokenService;
+
+    public TokenRevocationResource(
+        TokenProvider tokenProvider,
+        TokenRevocationStore tokenRevocationStore,
+        RefreshTokenService refreshTokenService
+    ) {
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    /**
+     * {@code POST  /admin/tokens/revoke} : revoke a token on all the gateway instances.
+     *
+     * @param tokenRevocation the token to revoke.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the token is invalid, expired, or has no identifier.
+     */
+    @PostMapping("/tokens/revoke")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Void>> revokeToken(@Valid @RequestBody TokenRevocationVM tokenRevocation) {
+        log.debug("REST request to revoke a token");
+        TokenVerificationResult verification = tokenProvider.verifyToken(tokenRevocation.getToken());
+        if (!verification.isValid()) {
+            return Mono.error(new BadRequestAlertException("Invalid or expired token", ENTITY_NAME, "tokeninvalid"));
+        }
+        if (verification.getTokenId() == null) {
+            return Mono.error(new BadRequestAlertException("Token without identifier, revoke its user tokens", ENTITY_NAME, "idnull"));
+        }
+        return tokenRevocationStore
+            .revoke(verification.getTokenId(), verification.getExpiration())
+            .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * {@code DELETE  /admin/users/:login/tokens} : revoke all the tokens issued so far to the "login" user, refresh
+     * tokens included.
+     *
+     * @param login the login of the user.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @DeleteMapping("/users/{login}/tokens")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Void>> revokeUserTokens(@PathVariable @Pattern(regexp = Constants.LOGIN_REGEX) String login) {
+        log.debug("REST request to revoke the tokens of User: {}", login);
+        return refreshTokenService.revokeAllTokens(login).thenReturn(ResponseEntity.noContent().build());
+    }
+}
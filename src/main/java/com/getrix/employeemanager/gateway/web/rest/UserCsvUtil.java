@@ -0,0 +1,150 @@
+package com.getrix.employeemanager.gateway.web.rest;
+
+import com.getrix.employeemanager.gateway.service.dto.AdminUserDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility class for writing the users as CSV, one line per user, with the columns of {@link #HEADER}, and for reading
+ * them back.
+ */
+final class UserCsvUtil {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    static final String HEADER =
+        "id,login,firstName,lastName,email,imageUrl,activated,langKey,authorities," +
+        "createdBy,createdDate,lastModifiedBy,lastModifiedDate\n";
+
+    private static final String AUTHORITY_SEPARATOR = ",";
+
+    private UserCsvUtil() {}
+
+    /**
+     * Write a user as a CSV line: the fields with a comma, a quote or a line break are quoted, and the empty fields
+     * stand for null values.
+     *
+     * @param user the user to write.
+     * @return the CSV line, ending with a line break.
+     */
+    static String toCsvLine(AdminUserDTO user) {
+        String authorities = user.getAuthorities() == null
+            ? null
+            : user.getAuthorities().stream().sorted().collect(Collectors.joining(AUTHORITY_SEPARATOR));
+        return Stream
+            .of(
+                user.getId(),
+                user.getLogin(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getEmail(),
+                user.getImageUrl(),
+                user.isActivated(),
+                user.getLangKey(),
+                authorities,
+                user.getCreatedBy(),
+                user.getCreatedDate(),
+                user.getLastModifiedBy(),
+                user.getLastModifiedDate()
+            )
+            .map(field -> escape(Objects.toString(field, "")))
+            .collect(Collectors.joining(",", "", "\n"));
+    }
+
+    /**
+     * Read the users from CSV lines: the first line names the columns, in any order, as in {@link #HEADER}. The unknown
+     * columns are ignored, as are the ids, the activation and the auditing columns. The quoted fields cannot span
+     * several lines.
+     *
+     * @param lines the CSV lines, without their line breaks.
+     * @return the users, one per non-blank line after the header.
+     */
+    static Flux<AdminUserDTO> fromCsvLines(Flux<String> lines) {
+        return lines
+            .filter(line -> !line.isBlank())
+            .switchOnFirst((header, users) -> {
+                if (!header.hasValue()) {
+                    return Flux.empty();
+                }
+                List<String> columns = parseLine(header.get().replace("\uFEFF", ""));
+                return users.skip(1).map(line -> toUser(columns, parseLine(line)));
+            });
+    }
+
+    private static AdminUserDTO toUser(List<String> columns, List<String> fields) {
+        AdminUserDTO user = new AdminUserDTO();
+        for (int i = 0; i < columns.size() && i < fields.size(); i++) {
+            String field = fields.get(i).isEmpty() ? null : fields.get(i);
+            switch (columns.get(i).trim()) {
+                case "login":
+                    user.setLogin(field);
+                    break;
+                case "firstName":
+                    user.setFirstName(field);
+                    break;
+                case "lastName":
+                    user.setLastName(field);
+                    break;
+                case "email":
+                    user.setEmail(field);
+                    break;
+                case "imageUrl":
+                    user.setImageUrl(field);
+                    break;
+                case "langKey":
+                    user.setLangKey(field);
+                    break;
+                case "authorities":
+                    user.setAuthorities(field == null ? null : new HashSet<>(Arrays.asList(field.split(AUTHORITY_SEPARATOR))));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return user;
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String escape(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
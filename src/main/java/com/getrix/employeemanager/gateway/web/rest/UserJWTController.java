@@ -1,18 +1,22 @@
 package com.getrix.employeemanager.gateway.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.getrix.employeemanager.gateway.security.ClientAddressResolver;
+import com.getrix.employeemanager.gateway.security.LoginThrottler;
 import com.getrix.employeemanager.gateway.security.jwt.JWTFilter;
-import com.getrix.employeemanager.gateway.security.jwt.TokenProvider;
+import com.getrix.employeemanager.gateway.service.RefreshTokenService;
+import com.getrix.employeemanager.gateway.service.dto.AuthenticationTokensDTO;
 import com.getrix.employeemanager.gateway.web.rest.vm.LoginVM;
+import com.getrix.employeemanager.gateway.web.rest.vm.RefreshTokenVM;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * Controller to authenticate users.
@@ -21,28 +25,58 @@ import reactor.core.scheduler.Schedulers;
 @RequestMapping("/api")
 public class UserJWTController {
 
-    private final TokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
 
     private final ReactiveAuthenticationManager authenticationManager;
 
-    public UserJWTController(TokenProvider tokenProvider, ReactiveAuthenticationManager authenticationManager) {
-        this.tokenProvider = tokenProvider;
+    private final LoginThrottler loginThrottler;
+
+    private final ClientAddressResolver clientAddressResolver;
+
+    public UserJWTController(
+        RefreshTokenService refreshTokenService,
+        ReactiveAuthenticationManager authenticationManager,
+        LoginThrottler loginThrottler,
+        ClientAddressResolver clientAddressResolver
+    ) {
+        this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
+        this.loginThrottler = loginThrottler;
+        this.clientAddressResolver = clientAddressResolver;
     }
 
     @PostMapping("/authenticate")
-    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM) {
+    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM, ServerHttpRequest request) {
         return loginVM
             .flatMap(login ->
-                authenticationManager
-                    .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
-                    .flatMap(auth -> Mono.fromCallable(() -> tokenProvider.createToken(auth, login.isRememberMe())))
+                loginThrottler
+                    .checkAttempt(login.getUsername(), clientAddressResolver.resolve(request))
+                    .then(Mono.defer(() -> authenticationManager.authenticate(toAuthenticationToken(login))))
+                    .flatMap(auth -> refreshTokenService.createTokens(auth, login.isRememberMe()))
             )
-            .map(jwt -> {
-                HttpHeaders httpHeaders = new HttpHeaders();
-                httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-                return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
-            });
+            .map(UserJWTController::toResponse);
+    }
+
+    /**
+     * {@code POST  /authenticate/refresh} : exchange a refresh token for new tokens, without checking the password.
+     *
+     * @param refreshTokenVM the refresh token, which cannot be used anymore afterwards.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the new tokens in body, or with status
+     * {@code 401 (Unauthorized)} if the refresh token is invalid, expired or already used.
+     */
+    @PostMapping("/authenticate/refresh")
+    public Mono<ResponseEntity<JWTToken>> refresh(@Valid @RequestBody Mono<RefreshTokenVM> refreshTokenVM) {
+        return refreshTokenVM.flatMap(vm -> refreshTokenService.refresh(vm.getRefreshToken())).map(UserJWTController::toResponse);
+    }
+
+    private static UsernamePasswordAuthenticationToken toAuthenticationToken(LoginVM login) {
+        return new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword());
+    }
+
+    private static ResponseEntity<JWTToken> toResponse(AuthenticationTokensDTO tokens) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + tokens.getAccessToken());
+        return new ResponseEntity<>(new JWTToken(tokens.getAccessToken(), tokens.getRefreshToken()), httpHeaders, HttpStatus.OK);
     }
 
     /**
@@ -52,8 +86,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -64,5 +101,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
@@ -5,13 +5,17 @@ import com.getrix.employeemanager.gateway.domain.User;
 import com.getrix.employeemanager.gateway.repository.UserRepository;
 import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
 import com.getrix.employeemanager.gateway.service.MailService;
+import com.getrix.employeemanager.gateway.service.UserImportService;
 import com.getrix.employeemanager.gateway.service.UserService;
 import com.getrix.employeemanager.gateway.service.dto.AdminUserDTO;
+import com.getrix.employeemanager.gateway.service.dto.UserImportResultDTO;
 import com.getrix.employeemanager.gateway.web.rest.errors.BadRequestAlertException;
 import com.getrix.employeemanager.gateway.web.rest.errors.EmailAlreadyUsedException;
 import com.getrix.employeemanager.gateway.web.rest.errors.LoginAlreadyUsedException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,6 +29,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -91,10 +96,18 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final UserImportService userImportService;
+
+    public UserResource(
+        UserService userService,
+        UserRepository userRepository,
+        MailService mailService,
+        UserImportService userImportService
+    ) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.userImportService = userImportService;
     }
 
     /**
@@ -146,6 +159,37 @@ public class UserResource {
             });
     }
 
+    /**
+     * {@code POST /admin/users/import} : Creates many new users at once, from newline delimited JSON.
+     * <p>
+     * Each user is created as by {@code POST /admin/users}, if its login and email are not already used, and sent a
+     * creation mail. The rows are read, checked and inserted by chunks, at the pace of the database.
+     *
+     * @param users the users to create.
+     * @return the outcome of each row, as newline delimited JSON in the order of the rows.
+     */
+    @PostMapping(value = "/users/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<UserImportResultDTO> importUsers(@RequestBody Flux<AdminUserDTO> users) {
+        log.debug("REST request to import Users");
+        return userImportService.importUsers(users);
+    }
+
+    /**
+     * {@code POST /admin/users/import} : Creates many new users at once, from CSV with a header line, as exported by
+     * {@code GET /admin/users/export}.
+     *
+     * @param lines the CSV lines.
+     * @return the outcome of each row, as newline delimited JSON in the order of the rows.
+     * @see #importUsers(Flux)
+     */
+    @PostMapping(value = "/users/import", consumes = UserCsvUtil.TEXT_CSV_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<UserImportResultDTO> importUsersFromCsv(@RequestBody Flux<String> lines) {
+        log.debug("REST request to import Users from CSV");
+        return userImportService.importUsers(UserCsvUtil.fromCsvLines(lines));
+    }
+
     /**
      * {@code PUT /admin/users} : Updates an existing User.
      *
@@ -190,18 +234,31 @@ public class UserResource {
      *
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
+     * @param cursor the position of the page: empty for the first page, or the {@code X-Next-Cursor} of the previous
+     * page. Without it, the page is found by its number and the users are counted.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public Mono<ResponseEntity<Flux<AdminUserDTO>>> getAllUsers(
         @org.springdoc.api.annotations.ParameterObject ServerHttpRequest request,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = CursorPaginationUtil.CURSOR_PARAMETER, required = false) String cursor
     ) {
         log.debug("REST request to get all User for an admin");
         if (!onlyContainsAllowedProperties(pageable)) {
             return Mono.just(ResponseEntity.badRequest().build());
         }
+        if (cursor != null) {
+            return CursorPaginationUtil.getPageByCursor(
+                request,
+                pageable,
+                cursor,
+                userService::getAllManagedUsers,
+                AdminUserDTO::getId,
+                AdminUserDTO::getLogin
+            );
+        }
 
         return userService
             .countManagedUsers()
@@ -210,6 +267,50 @@ public class UserResource {
             .map(headers -> ResponseEntity.ok().headers(headers).body(userService.getAllManagedUsers(pageable)));
     }
 
+    /**
+     * {@code GET /admin/users/export} : stream all the users with all the details, as newline delimited JSON, straight
+     * from the database and at the pace of the client.
+     * <p>
+     * With an {@code If-Modified-Since} header, only the users modified since then are exported. The
+     * {@code Last-Modified} header of the response is the time of the export, to be sent back as the
+     * {@code If-Modified-Since} header of the next incremental export: the users modified during the second of an
+     * export may then be exported twice, but never missed.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users.
+     */
+    @GetMapping(value = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Flux<AdminUserDTO>>> exportUsers(ServerHttpRequest request) {
+        log.debug("REST request to export the users for an admin");
+        return Mono.just(exportResponse().body(userService.exportManagedUsers(ifModifiedSince(request))));
+    }
+
+    /**
+     * {@code GET /admin/users/export} : stream all the users with all the details, as CSV.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the CSV header, then a line per user.
+     * @see #exportUsers(ServerHttpRequest)
+     */
+    @GetMapping(value = "/users/export", produces = UserCsvUtil.TEXT_CSV_VALUE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Flux<String>>> exportUsersAsCsv(ServerHttpRequest request) {
+        log.debug("REST request to export the users as CSV for an admin");
+        Flux<String> lines = userService.exportManagedUsers(ifModifiedSince(request)).map(UserCsvUtil::toCsvLine);
+        return Mono.just(exportResponse().contentType(UserCsvUtil.TEXT_CSV).body(Flux.concat(Flux.just(UserCsvUtil.HEADER), lines)));
+    }
+
+    private static ResponseEntity.BodyBuilder exportResponse() {
+        // truncated as the HTTP dates, so that the next export starts from the beginning of this second
+        return ResponseEntity.ok().lastModified(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    private static Instant ifModifiedSince(ServerHttpRequest request) {
+        long ifModifiedSince = request.getHeaders().getIfModifiedSince();
+        return ifModifiedSince >= 0 ? Instant.ofEpochMilli(ifModifiedSince) : null;
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
@@ -0,0 +1,28 @@
+package com.getrix.employeemanager.gateway.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import javax.validation.constraints.NotNull;
+
+/**
+ * View Model object for storing the refresh token to exchange for new tokens.
+ */
+public class RefreshTokenVM {
+
+    @NotNull
+    @JsonProperty("refresh_token")
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    @Override
+    public String toString() {
+        // the token is a credential, and must not be logged
+        return "RefreshTokenVM{}";
+    }
+}
@@ -0,0 +1,26 @@
+package com.getrix.employeemanager.gateway.web.rest.vm;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * View Model object for storing the JWT to revoke.
+ */
+public class TokenRevocationVM {
+
+    @NotNull
+    private String token;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    @Override
+    public String toString() {
+        // the token is a credential, and must not be logged
+        return "TokenRevocationVM{}";
+    }
+}
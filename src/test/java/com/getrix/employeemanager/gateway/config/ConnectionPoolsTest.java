@@ -0,0 +1,69 @@
+package com.getrix.employeemanager.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import reactor.core.publisher.Mono;
+
+class ConnectionPoolsTest {
+
+    private R2dbcProperties.Pool properties;
+
+    private MeterRegistry meterRegistry;
+
+    private ConnectionPools connectionPools;
+
+    @BeforeEach
+    public void setup() {
+        properties = new R2dbcProperties.Pool();
+        properties.setInitialSize(2);
+        properties.setMaxSize(4);
+        meterRegistry = new SimpleMeterRegistry();
+        connectionPools = new ConnectionPools(properties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionPools.destroy();
+    }
+
+    @Test
+    void testAcquiredConnectionsAreTrackedAndTimed() {
+        ConnectionFactory pooled = connectionPools.add(ConnectionPools.PRIMARY, createDatabase("pools"));
+
+        Connection connection = Mono.from(pooled.create()).block();
+
+        ConnectionPools.PoolState state = connectionPools.getStates().get(ConnectionPools.PRIMARY);
+        assertThat(state.getAcquired()).isEqualTo(1);
+        assertThat(state.getAllocated()).isBetween(1, 4);
+        assertThat(state.getMaxAllocated()).isEqualTo(4);
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").tag("name", ConnectionPools.PRIMARY).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("r2dbc.pool.acquired").tag("name", ConnectionPools.PRIMARY).gauge().value()).isEqualTo(1);
+
+        Mono.from(connection.close()).block();
+
+        assertThat(connectionPools.getStates().get(ConnectionPools.PRIMARY).getAcquired()).isZero();
+        assertThat(meterRegistry.get("r2dbc.pool.pending").tag("name", ConnectionPools.PRIMARY).gauge().value()).isZero();
+    }
+
+    @Test
+    void testConnectionsAreNotPooledWhenDisabled() {
+        properties.setEnabled(false);
+        ConnectionFactory connectionFactory = createDatabase("unpooled");
+
+        assertThat(connectionPools.add(ConnectionPools.PRIMARY, connectionFactory)).isSameAs(connectionFactory);
+        assertThat(connectionPools.getStates()).isEmpty();
+    }
+
+    private static ConnectionFactory createDatabase(String name) {
+        return ConnectionFactories.get("r2dbc:h2:mem:///" + name + ";DB_CLOSE_DELAY=-1");
+    }
+}
@@ -0,0 +1,105 @@
+package com.getrix.employeemanager.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+class ReplicaRoutingConnectionFactoryTest {
+
+    private DatabaseClient primary;
+
+    private DatabaseClient replica;
+
+    private MeterRegistry meterRegistry;
+
+    private ReplicaRoutingConnectionFactory routingConnectionFactory;
+
+    private DatabaseClient db;
+
+    @BeforeEach
+    public void setup() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        replica.sql("CREATE TABLE IF NOT EXISTS replication (lag INT)").then().block();
+        replica.sql("DELETE FROM replication").then().block();
+        replica.sql("INSERT INTO replication VALUES (0)").then().block();
+
+        ApplicationProperties.Database.Replicas properties = new ApplicationProperties.Database.Replicas();
+        properties.setLagQuery("SELECT lag FROM replication");
+        meterRegistry = new SimpleMeterRegistry();
+        routingConnectionFactory =
+            new ReplicaRoutingConnectionFactory(
+                primary.getConnectionFactory(),
+                List.of(replica.getConnectionFactory()),
+                properties,
+                meterRegistry
+            );
+        routingConnectionFactory.afterPropertiesSet();
+        db = DatabaseClient.create(routingConnectionFactory);
+    }
+
+    @Test
+    void testReadOnlyTransactionsAreRoutedToHealthyReplica() {
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(true)).isEqualTo("replica");
+        assertThat(readNode(false)).isEqualTo("primary");
+        assertThat(db.sql("SELECT name FROM node").map(row -> row.get(0, String.class)).one().block()).isEqualTo("primary");
+        assertThat(routes("replica")).isEqualTo(1);
+        assertThat(routes("primary")).isEqualTo(2);
+        assertThat(meterRegistry.get("database.replicas.healthy").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadOnlyTransactionsFallBackToPrimary() {
+        assertThat(readNode(true)).isEqualTo("primary");
+
+        replica.sql("UPDATE replication SET lag = 60").then().block();
+        routingConnectionFactory.checkReplicas().block();
+        assertThat(readNode(true)).isEqualTo("primary");
+
+        replica.sql("UPDATE replication SET lag = 1").then().block();
+        routingConnectionFactory.checkReplicas().block();
+        assertThat(readNode(true)).isEqualTo("replica");
+
+        replica.sql("DROP TABLE replication").then().block();
+        routingConnectionFactory.checkReplicas().block();
+        assertThat(readNode(true)).isEqualTo("primary");
+        assertThat(routes("fallback")).isEqualTo(3);
+        assertThat(meterRegistry.get("database.replicas.healthy").gauge().value()).isZero();
+    }
+
+    private String readNode(boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(readOnly);
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(
+            new RoutingR2dbcTransactionManager(routingConnectionFactory),
+            definition
+        );
+        Mono<String> node = db.sql("SELECT name FROM node").map(row -> row.get(0, String.class)).one();
+        return node.as(transactionalOperator::transactional).block();
+    }
+
+    private double routes(String route) {
+        return meterRegistry.get("database.routing").tag("route", route).counter().count();
+    }
+
+    private static DatabaseClient createDatabase(String name) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///routing-" + name + ";DB_CLOSE_DELAY=-1");
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        client.sql("CREATE TABLE IF NOT EXISTS node (name VARCHAR(50))").then().block();
+        client.sql("DELETE FROM node").then().block();
+        client.sql("INSERT INTO node VALUES ('" + name + "')").then().block();
+        return client;
+    }
+}
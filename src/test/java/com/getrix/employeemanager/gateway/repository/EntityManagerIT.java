@@ -0,0 +1,91 @@
+package com.getrix.employeemanager.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.getrix.employeemanager.gateway.IntegrationTest;
+import com.getrix.employeemanager.gateway.config.Constants;
+import com.getrix.employeemanager.gateway.domain.User;
+import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Integration tests for the link tables of {@link EntityManager}.
+ */
+@IntegrationTest
+class EntityManagerIT {
+
+    private static final EntityManager.LinkTable USER_AUTHORITY_LINK = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        user = new User();
+        user.setLogin("entity-manager-" + RandomStringUtils.randomAlphabetic(5).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setCreatedBy(Constants.SYSTEM);
+        userRepository.save(user).block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        userRepository.delete(user).block();
+    }
+
+    @Test
+    void testInsertIntoLinkTable() {
+        Integer inserted = em
+            .insertIntoLinkTable(USER_AUTHORITY_LINK, user.getId(), List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN))
+            .block();
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(findAuthorityNames()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(em.insertIntoLinkTable(USER_AUTHORITY_LINK, user.getId(), List.of()).block()).isZero();
+    }
+
+    @Test
+    void testSyncLinkTableOnlyWritesChanges() {
+        em.insertIntoLinkTable(USER_AUTHORITY_LINK, user.getId(), List.of(AuthoritiesConstants.USER)).block();
+
+        Integer changed = em.syncLinkTable(USER_AUTHORITY_LINK, user.getId(), List.of(AuthoritiesConstants.ADMIN)).block();
+        assertThat(changed).isEqualTo(2);
+        assertThat(findAuthorityNames()).containsExactly(AuthoritiesConstants.ADMIN);
+
+        changed = em.syncLinkTable(USER_AUTHORITY_LINK, user.getId(), List.of(AuthoritiesConstants.ADMIN)).block();
+        assertThat(changed).isZero();
+
+        changed = em.syncLinkTable(USER_AUTHORITY_LINK, user.getId(), List.of()).block();
+        assertThat(changed).isEqualTo(1);
+        assertThat(findAuthorityNames()).isEmpty();
+    }
+
+    private List<String> findAuthorityNames() {
+        return db
+            .sql("SELECT authority_name FROM jhi_user_authority WHERE user_id = :userId")
+            .bind("userId", user.getId())
+            .map(row -> row.get("authority_name", String.class))
+            .all()
+            .collectList()
+            .block();
+    }
+}
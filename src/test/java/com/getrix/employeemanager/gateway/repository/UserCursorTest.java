@@ -0,0 +1,51 @@
+package com.getrix.employeemanager.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class UserCursorTest {
+
+    @Test
+    void testFirstCursorDefaultsToIdOrder() {
+        UserCursor cursor = UserCursor.first(Sort.unsorted());
+
+        assertThat(cursor.isFirst()).isTrue();
+        assertThat(cursor.getProperty()).isEqualTo("id");
+        assertThat(cursor.getDirection()).isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        UserCursor cursor = UserCursor.first(Sort.by(Sort.Direction.DESC, "login", "id")).after(42L, "john.doe@localhost");
+
+        UserCursor decoded = UserCursor.decode(cursor.encode());
+
+        assertThat(decoded.isFirst()).isFalse();
+        assertThat(decoded.getProperty()).isEqualTo("login");
+        assertThat(decoded.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(decoded.getLastLogin()).isEqualTo("john.doe@localhost");
+
+        UserCursor idCursor = UserCursor.decode(UserCursor.first(Sort.by(Sort.Direction.DESC, "id")).after(42L, "john.doe").encode());
+        assertThat(idCursor.getProperty()).isEqualTo("id");
+        assertThat(idCursor.getLastId()).isEqualTo(42L);
+    }
+
+    @Test
+    void testUnsupportedSortIsRejected() {
+        assertThatThrownBy(() -> UserCursor.first(Sort.by("firstName"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserCursor.first(Sort.by("login", "email"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserCursor.first(Sort.by(Sort.Order.asc("login"), Sort.Order.desc("id"))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThatThrownBy(() -> UserCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        // "login,ASC" and "id,ASC,x"
+        assertThatThrownBy(() -> UserCursor.decode("bG9naW4sQVND")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserCursor.decode("aWQsQVNDLHg")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,160 @@
+package com.getrix.employeemanager.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.getrix.employeemanager.gateway.config.ReplicaRoutingConnectionFactory;
+import com.getrix.employeemanager.gateway.config.RoutingR2dbcTransactionManager;
+import com.getrix.employeemanager.gateway.domain.User;
+import com.getrix.employeemanager.gateway.repository.rowmapper.ColumnConverter;
+import com.getrix.employeemanager.gateway.repository.rowmapper.UserRowMapper;
+import com.hazelcast.map.IMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests that the users missing from the cache are read from the primary, as a replica may lag behind it.
+ */
+class UserRepositoryCacheTest {
+
+    private IMap<String, User> usersByLogin;
+
+    private ReplicaRoutingConnectionFactory routingConnectionFactory;
+
+    private UserRepositoryInternalImpl userRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        DatabaseClient primary = createDatabase("primary", "$2a$10$primary");
+        DatabaseClient replica = createDatabase("replica", "$2a$10$stale");
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        routingConnectionFactory =
+            new ReplicaRoutingConnectionFactory(
+                primary.getConnectionFactory(),
+                List.of(replica.getConnectionFactory()),
+                new ApplicationProperties.Database.Replicas(),
+                meterRegistry
+            );
+        routingConnectionFactory.afterPropertiesSet();
+        routingConnectionFactory.start();
+        Gauge healthyReplicas = meterRegistry.get("database.replicas.healthy").gauge();
+        Mono
+            .fromSupplier(healthyReplicas::value)
+            .filter(healthy -> healthy > 0)
+            .repeatWhenEmpty(ticks -> ticks.delayElements(Duration.ofMillis(10)))
+            .block(Duration.ofSeconds(10));
+
+        usersByLogin = mock(IMap.class);
+        when(usersByLogin.getAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(usersByLogin.setAsync(anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        Cache cache = mock(Cache.class);
+        when(cache.getNativeCache()).thenReturn(usersByLogin);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE, List.of());
+        MappingR2dbcConverter r2dbcConverter = new MappingR2dbcConverter(new R2dbcMappingContext(), conversions);
+        R2dbcEntityTemplate r2dbcEntityTemplate = new R2dbcEntityTemplate(routingConnectionFactory);
+        userRepository =
+            new UserRepositoryInternalImpl(
+                DatabaseClient.create(routingConnectionFactory),
+                r2dbcEntityTemplate,
+                r2dbcConverter,
+                null,
+                new UserRowMapper(new ColumnConverter(conversions, r2dbcConverter)),
+                cacheManager,
+                new RoutingR2dbcTransactionManager(routingConnectionFactory)
+            );
+    }
+
+    @AfterEach
+    public void tearDown() {
+        routingConnectionFactory.stop();
+    }
+
+    @Test
+    void testUserMissingFromCacheIsReadFromPrimaryInReadOnlyTransaction() {
+        User user = findOneWithAuthoritiesByLogin(true);
+
+        assertThat(user.getPassword()).isEqualTo("$2a$10$primary");
+        verify(usersByLogin).setAsync("cached-user", user);
+    }
+
+    @Test
+    void testUserMissingFromCacheIsReadFromPrimary() {
+        User user = findOneWithAuthoritiesByLogin(false);
+
+        assertThat(user.getPassword()).isEqualTo("$2a$10$primary");
+        assertThat(user.getAuthorities()).hasSize(1);
+        verify(usersByLogin).setAsync("cached-user", user);
+    }
+
+    @Test
+    void testOtherReadsOfReadOnlyTransactionGoToReplica() {
+        Flux<User> users = userRepository.findAllWithAuthorities(UserCursor.first(Sort.unsorted()), 1);
+
+        assertThat(users.as(transactionalOperator(true)::transactional).blockFirst().getPassword()).isEqualTo("$2a$10$stale");
+        verify(usersByLogin, never()).setAsync(anyString(), any());
+    }
+
+    private User findOneWithAuthoritiesByLogin(boolean readOnly) {
+        return userRepository.findOneWithAuthoritiesByLogin("cached-user").as(transactionalOperator(readOnly)::transactional).block();
+    }
+
+    private TransactionalOperator transactionalOperator(boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(readOnly);
+        return TransactionalOperator.create(new RoutingR2dbcTransactionManager(routingConnectionFactory), definition);
+    }
+
+    private static DatabaseClient createDatabase(String name, String passwordHash) {
+        DatabaseClient client = DatabaseClient.create(ConnectionFactories.get("r2dbc:h2:mem:///user-cache-" + name + ";DB_CLOSE_DELAY=-1"));
+        client
+            .sql(
+                "CREATE TABLE IF NOT EXISTS jhi_user (id BIGINT PRIMARY KEY, login VARCHAR(50), password_hash VARCHAR(60), " +
+                "first_name VARCHAR(50), last_name VARCHAR(50), email VARCHAR(191), image_url VARCHAR(256), activated BOOLEAN, " +
+                "lang_key VARCHAR(10), activation_key VARCHAR(20), reset_key VARCHAR(20), created_by VARCHAR(50), " +
+                "created_date TIMESTAMP, reset_date TIMESTAMP, last_modified_by VARCHAR(50), last_modified_date TIMESTAMP)"
+            )
+            .then()
+            .block();
+        client.sql("CREATE TABLE IF NOT EXISTS jhi_user_authority (user_id BIGINT, authority_name VARCHAR(50))").then().block();
+        client.sql("DELETE FROM jhi_user_authority").then().block();
+        client.sql("DELETE FROM jhi_user").then().block();
+        client
+            .sql("INSERT INTO jhi_user (id, login, password_hash, activated, created_by) VALUES (1, 'cached-user', :hash, TRUE, 'system')")
+            .bind("hash", passwordHash)
+            .then()
+            .block();
+        client.sql("INSERT INTO jhi_user_authority VALUES (1, 'ROLE_USER')").then().block();
+        return client;
+    }
+}
@@ -0,0 +1,115 @@
+package com.getrix.employeemanager.gateway.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link Row} decoding its values like the drivers do: only to the type they were read as, with the column names
+ * matched regardless of their case.
+ */
+class InMemoryRow implements Row {
+
+    private final Metadata metadata;
+
+    private final Object[] values;
+
+    InMemoryRow(Metadata metadata, Object... values) {
+        this.metadata = metadata;
+        this.values = values;
+    }
+
+    Metadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        Object value = values[index];
+        if (value != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException("Cannot decode value of type " + value.getClass() + " to " + type);
+        }
+        return type.cast(value);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        return get(metadata.indexOf(name), type);
+    }
+
+    @Override
+    public Object get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public Object get(String name) {
+        return values[metadata.indexOf(name)];
+    }
+
+    static class Metadata implements RowMetadata {
+
+        private final List<Column> columns = new ArrayList<>();
+
+        Metadata column(String name, Class<?> javaType) {
+            columns.add(new Column(name, javaType));
+            return this;
+        }
+
+        private int indexOf(String name) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).getName().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Column name '" + name + "' does not exist");
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.get(indexOf(name));
+        }
+
+        @Override
+        public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+            return columns;
+        }
+
+        @Override
+        public Collection<String> getColumnNames() {
+            List<String> names = new ArrayList<>(columns.size());
+            columns.forEach(column -> names.add(column.getName()));
+            return names;
+        }
+    }
+
+    private static class Column implements ColumnMetadata {
+
+        private final String name;
+
+        private final Class<?> javaType;
+
+        private Column(String name, Class<?> javaType) {
+            this.name = name;
+            this.javaType = javaType;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+    }
+}
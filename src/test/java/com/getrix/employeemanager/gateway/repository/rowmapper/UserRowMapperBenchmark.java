@@ -0,0 +1,93 @@
+package com.getrix.employeemanager.gateway.repository.rowmapper;
+
+import com.getrix.employeemanager.gateway.domain.User;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Mapping a user row with the entity converter, as the user queries did, and by the positions resolved from its
+ * metadata. Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=UserRowMapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(1)
+public class UserRowMapperBenchmark {
+
+    private static final String PREFIX = "e";
+
+    private MappingR2dbcConverter r2dbcConverter;
+
+    private UserRowMapper userRowMapper;
+
+    private InMemoryRow row;
+
+    private InMemoryRow entityRow;
+
+    @Setup
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE, List.of());
+        r2dbcConverter = new MappingR2dbcConverter(new R2dbcMappingContext(), conversions);
+        userRowMapper = new UserRowMapper(new ColumnConverter(conversions, r2dbcConverter));
+        LocalDateTime date = LocalDateTime.of(2022, 1, 1, 12, 0);
+        Object[] values = {
+            1L,
+            "johndoe",
+            "hash",
+            "john",
+            "doe",
+            "johndoe@localhost",
+            true,
+            "en",
+            null,
+            null,
+            "key",
+            date,
+            "system",
+            date,
+            "admin",
+            date,
+        };
+        row = new InMemoryRow(metadata(PREFIX + "_", "password"), values);
+        entityRow = new InMemoryRow(metadata("", "password_hash"), values);
+    }
+
+    private static InMemoryRow.Metadata metadata(String prefix, String passwordColumn) {
+        return new InMemoryRow.Metadata()
+            .column(prefix + "id", Long.class)
+            .column(prefix + "login", String.class)
+            .column(prefix + passwordColumn, String.class)
+            .column(prefix + "first_name", String.class)
+            .column(prefix + "last_name", String.class)
+            .column(prefix + "email", String.class)
+            .column(prefix + "activated", Boolean.class)
+            .column(prefix + "lang_key", String.class)
+            .column(prefix + "image_url", String.class)
+            .column(prefix + "activation_key", String.class)
+            .column(prefix + "reset_key", String.class)
+            .column(prefix + "reset_date", LocalDateTime.class)
+            .column(prefix + "created_by", String.class)
+            .column(prefix + "created_date", LocalDateTime.class)
+            .column(prefix + "last_modified_by", String.class)
+            .column(prefix + "last_modified_date", LocalDateTime.class);
+    }
+
+    @Benchmark
+    public User byConverter() {
+        return r2dbcConverter.read(User.class, entityRow, entityRow.getMetadata());
+    }
+
+    @Benchmark
+    public User byPosition() {
+        return userRowMapper.apply(row, row.getMetadata(), PREFIX);
+    }
+}
@@ -0,0 +1,119 @@
+package com.getrix.employeemanager.gateway.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.getrix.employeemanager.gateway.domain.User;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class UserRowMapperTest {
+
+    private static final LocalDateTime RESET_DATE = LocalDateTime.of(2022, 1, 1, 12, 0);
+
+    private UserRowMapper userRowMapper;
+
+    @BeforeEach
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE, List.of());
+        MappingR2dbcConverter r2dbcConverter = new MappingR2dbcConverter(new R2dbcMappingContext(), conversions);
+        userRowMapper = new UserRowMapper(new ColumnConverter(conversions, r2dbcConverter));
+    }
+
+    @Test
+    void testMapsRowByPosition() {
+        InMemoryRow row = userRow(userMetadata("e"), 1L, "johndoe");
+
+        assertUser(userRowMapper.apply(row, row.getMetadata(), "e"), 1L, "johndoe");
+    }
+
+    @Test
+    void testMapsRowsOfSeveralShapes() {
+        InMemoryRow row = userRow(userMetadata("e"), 1L, "johndoe");
+        InMemoryRow otherRow = userRow(userMetadata("e").column("e_other", String.class), 2L, "janedoe");
+        InMemoryRow prefixedRow = userRow(userMetadata("u"), 3L, "jdoe");
+
+        assertUser(userRowMapper.apply(row, row.getMetadata(), "e"), 1L, "johndoe");
+        assertUser(userRowMapper.apply(otherRow, otherRow.getMetadata(), "e"), 2L, "janedoe");
+        assertUser(userRowMapper.apply(prefixedRow, prefixedRow.getMetadata(), "u"), 3L, "jdoe");
+        assertUser(userRowMapper.apply(row, userMetadata("e"), "e"), 1L, "johndoe");
+    }
+
+    @Test
+    void testMissingColumnIsRejected() {
+        InMemoryRow row = new InMemoryRow(new InMemoryRow.Metadata().column("e_id", Long.class), 1L);
+
+        assertThatThrownBy(() -> userRowMapper.apply(row, row.getMetadata(), "e"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("e_login");
+    }
+
+    private static InMemoryRow.Metadata userMetadata(String prefix) {
+        return new InMemoryRow.Metadata()
+            .column(prefix.toUpperCase() + "_ID", Long.class)
+            .column(prefix + "_login", String.class)
+            .column(prefix + "_password", String.class)
+            .column(prefix + "_first_name", String.class)
+            .column(prefix + "_last_name", String.class)
+            .column(prefix + "_email", String.class)
+            .column(prefix + "_activated", Boolean.class)
+            .column(prefix + "_lang_key", String.class)
+            .column(prefix + "_image_url", String.class)
+            .column(prefix + "_activation_key", String.class)
+            .column(prefix + "_reset_key", String.class)
+            .column(prefix + "_reset_date", LocalDateTime.class)
+            .column(prefix + "_created_by", String.class)
+            .column(prefix + "_created_date", LocalDateTime.class)
+            .column(prefix + "_last_modified_by", String.class)
+            .column(prefix + "_last_modified_date", LocalDateTime.class);
+    }
+
+    private static InMemoryRow userRow(InMemoryRow.Metadata metadata, Long id, String login) {
+        return new InMemoryRow(
+            metadata,
+            id,
+            login,
+            "hash",
+            "john",
+            "doe",
+            login + "@localhost",
+            true,
+            "en",
+            null,
+            null,
+            "key",
+            RESET_DATE,
+            "system",
+            RESET_DATE,
+            "admin",
+            RESET_DATE
+        );
+    }
+
+    private static void assertUser(User user, Long id, String login) {
+        assertThat(user.getId()).isEqualTo(id);
+        assertThat(user.getLogin()).isEqualTo(login);
+        assertThat(user.getPassword()).isEqualTo("hash");
+        assertThat(user.getFirstName()).isEqualTo("john");
+        assertThat(user.getLastName()).isEqualTo("doe");
+        assertThat(user.getEmail()).isEqualTo(login + "@localhost");
+        assertThat(user.isActivated()).isTrue();
+        assertThat(user.getLangKey()).isEqualTo("en");
+        assertThat(user.getImageUrl()).isNull();
+        assertThat(user.getActivationKey()).isNull();
+        assertThat(user.getResetKey()).isEqualTo("key");
+        assertThat(user.getResetDate()).isEqualTo(RESET_DATE.toInstant(ZoneOffset.UTC));
+        assertThat(user.getCreatedBy()).isEqualTo("system");
+        assertThat(user.getCreatedDate()).isEqualTo(RESET_DATE.toInstant(ZoneOffset.UTC));
+        assertThat(user.getLastModifiedBy()).isEqualTo("admin");
+        assertThat(user.getLastModifiedDate()).isEqualTo(RESET_DATE.toInstant(ZoneOffset.UTC));
+    }
+}
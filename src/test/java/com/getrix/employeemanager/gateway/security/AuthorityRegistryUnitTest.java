@@ -0,0 +1,45 @@
+package com.getrix.employeemanager.gateway.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Test class for the {@link AuthorityRegistry} utility class.
+ */
+class AuthorityRegistryUnitTest {
+
+    @Test
+    void testOfReturnsCanonicalInstance() {
+        GrantedAuthority admin = AuthorityRegistry.of(AuthoritiesConstants.ADMIN);
+
+        assertThat(admin).isEqualTo(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN));
+        assertThat(AuthorityRegistry.of(new String(AuthoritiesConstants.ADMIN))).isSameAs(admin);
+        assertThat(AuthorityRegistry.of("ROLE_CUSTOM")).isSameAs(AuthorityRegistry.of("ROLE_CUSTOM"));
+    }
+
+    @Test
+    void testFromClaimSharesParsedAuthorities() {
+        List<GrantedAuthority> authorities = AuthorityRegistry.fromClaim(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER);
+
+        assertThat(authorities)
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(authorities.get(0)).isSameAs(AuthorityRegistry.of(AuthoritiesConstants.ADMIN));
+        assertThat(AuthorityRegistry.fromClaim(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER)).isSameAs(authorities);
+        assertThatThrownBy(() -> authorities.add(AuthorityRegistry.of(AuthoritiesConstants.ANONYMOUS)))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testFromClaimSkipsBlankAuthorities() {
+        assertThat(AuthorityRegistry.fromClaim("")).isEmpty();
+        assertThat(AuthorityRegistry.fromClaim(AuthoritiesConstants.USER + ", ,"))
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER);
+    }
+}
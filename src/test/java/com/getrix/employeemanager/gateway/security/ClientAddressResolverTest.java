@@ -0,0 +1,60 @@
+package com.getrix.employeemanager.gateway.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+class ClientAddressResolverTest {
+
+    private final ClientAddressResolver clientAddressResolver = new ClientAddressResolver(List.of("10.0.0.0/8", "192.168.1.1"));
+
+    @Test
+    void testClientsBehindTrustedProxyAreToldApart() throws Exception {
+        InetAddress client = clientAddressResolver.resolve(request("10.0.0.1", "X-Forwarded-For", "203.0.113.1"));
+        InetAddress otherClient = clientAddressResolver.resolve(request("10.0.0.1", "X-Forwarded-For", "203.0.113.2"));
+
+        assertThat(client).isEqualTo(InetAddress.getByName("203.0.113.1"));
+        assertThat(otherClient).isEqualTo(InetAddress.getByName("203.0.113.2"));
+    }
+
+    @Test
+    void testSpoofedAddressesBeforeTheClientAreIgnored() throws Exception {
+        MockServerHttpRequest request = request("10.0.0.1", "X-Forwarded-For", "198.51.100.7, 203.0.113.1, 192.168.1.1");
+
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo(InetAddress.getByName("203.0.113.1"));
+    }
+
+    @Test
+    void testForwardedHeaderIsPreferred() throws Exception {
+        MockServerHttpRequest request = MockServerHttpRequest
+            .get("/")
+            .remoteAddress(new InetSocketAddress("10.0.0.1", 443))
+            .header("Forwarded", "for=198.51.100.7;proto=https, for=\"[2001:db8::1]:4711\"")
+            .header("X-Forwarded-For", "203.0.113.1")
+            .build();
+
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo(InetAddress.getByName("2001:db8::1"));
+    }
+
+    @Test
+    void testHeadersOfUntrustedPeerAreIgnored() throws Exception {
+        MockServerHttpRequest request = request("198.51.100.7", "X-Forwarded-For", "203.0.113.1");
+
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo(InetAddress.getByName("198.51.100.7"));
+    }
+
+    @Test
+    void testUnknownForwardedAddressIsTheProxy() throws Exception {
+        MockServerHttpRequest request = request("10.0.0.1", "Forwarded", "for=unknown");
+
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo(InetAddress.getByName("10.0.0.1"));
+    }
+
+    private static MockServerHttpRequest request(String remoteAddress, String header, String value) {
+        return MockServerHttpRequest.get("/").remoteAddress(new InetSocketAddress(remoteAddress, 443)).header(header, value).build();
+    }
+}
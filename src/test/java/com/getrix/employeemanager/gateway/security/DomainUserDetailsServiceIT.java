@@ -12,6 +12,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -34,8 +35,13 @@ class DomainUserDetailsServiceIT {
     @Autowired
     private ReactiveUserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     public void init() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
         userRepository.deleteAllUserAuthorities().block();
         userRepository.deleteAll().block();
 
@@ -73,6 +79,20 @@ class DomainUserDetailsServiceIT {
         userRepository.save(userThree).block();
     }
 
+    @Test
+    void assertThatUserIsCachedUntilEvicted() {
+        domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        domainUserDetailsService.findByUsername(USER_ONE_EMAIL).block();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(USER_ONE_LOGIN)).isNotNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(USER_ONE_EMAIL)).isNotNull();
+
+        User userOne = userRepository.findOneByLogin(USER_ONE_LOGIN).block();
+        userRepository.clearUserCaches(userOne).block();
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(USER_ONE_LOGIN)).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(USER_ONE_EMAIL)).isNull();
+    }
+
     @Test
     void assertThatUserCanBeFoundByLogin() {
         UserDetails userDetails = domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
@@ -0,0 +1,38 @@
+package com.getrix.employeemanager.gateway.security;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Password hashes per second and per core at each BCrypt cost, to choose the
+ * {@code application.security.password-hashing.strength} of the gateway hardware. Run with
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=PasswordEncoderBenchmark}: the benchmark runs on a
+ * single thread, so its throughput is per core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({ "8", "10", "12" })
+    private int strength;
+
+    private RehashingPasswordEncoder passwordEncoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setup() {
+        passwordEncoder = new RehashingPasswordEncoder(strength);
+        encodedPassword = passwordEncoder.encode("password");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("password", encodedPassword);
+    }
+}
@@ -0,0 +1,14 @@
+package com.getrix.employeemanager.gateway.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class PasswordHashCalibratorTest {
+
+    @Test
+    void testCalibrationDoesNotGoBelowDefaultCost() {
+        assertThat(PasswordHashCalibrator.calibrate(Duration.ZERO)).isEqualTo(PasswordHashCalibrator.MIN_STRENGTH);
+    }
+}
@@ -0,0 +1,69 @@
+package com.getrix.employeemanager.gateway.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class PasswordHashingSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PasswordHashingScheduler passwordHashingScheduler;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties.Security.PasswordHashing properties = new ApplicationProperties.Security.PasswordHashing();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingScheduler = new PasswordHashingScheduler(properties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingScheduler.destroy();
+    }
+
+    @Test
+    void testHashingRunsOnDedicatedThread() {
+        String threadName = passwordHashingScheduler.schedule(() -> Thread.currentThread().getName()).block();
+
+        assertThat(threadName).startsWith("password-hashing-");
+        // the single thread times a hashing before running the next one
+        passwordHashingScheduler.schedule(() -> threadName).block();
+        assertThat(meterRegistry.get("executor").tag("name", PasswordHashingScheduler.METRIC_NAME).timer().count()).isPositive();
+    }
+
+    @Test
+    void testHashingIsRejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mono<Boolean> running = passwordHashingScheduler
+            .schedule(() -> {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            })
+            .cache();
+        running.subscribe();
+        started.await();
+        Mono<String> queued = passwordHashingScheduler.schedule(() -> "queued").cache();
+        queued.subscribe();
+
+        assertThat(meterRegistry.get("executor.queued").tag("name", PasswordHashingScheduler.METRIC_NAME).gauge().value()).isEqualTo(1);
+        assertThatThrownBy(() -> passwordHashingScheduler.schedule(() -> "rejected").block())
+            .isInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(meterRegistry.get(PasswordHashingScheduler.METRIC_NAME + ".rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.block()).isTrue();
+        assertThat(queued.block()).isEqualTo("queued");
+    }
+}
@@ -0,0 +1,45 @@
+package com.getrix.employeemanager.gateway.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class RehashingPasswordEncoderTest {
+
+    private final RehashingPasswordEncoder passwordEncoder = new RehashingPasswordEncoder(6);
+
+    @Test
+    void testHashesOfLowerCostAreReplaced() {
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(passwordEncoder.encode("password"))).isFalse();
+    }
+
+    @Test
+    void testHashesOfHigherCostAreKept() {
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(8).encode("password"))).isFalse();
+    }
+
+    @Test
+    void testHashesOfAnotherCostMatch() {
+        assertThat(passwordEncoder.matches("password", new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        assertThat(passwordEncoder.matches("other", new BCryptPasswordEncoder(4).encode("password"))).isFalse();
+    }
+
+    @Test
+    void testUnknownHashesAreNotReplaced() {
+        assertThat(passwordEncoder.upgradeEncoding(null)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding("")).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding("{noop}password")).isFalse();
+    }
+
+    @Test
+    void testUnusablePasswordsNeverMatch() {
+        String password = RehashingPasswordEncoder.unusablePassword();
+
+        assertThat(password).isNotEqualTo(RehashingPasswordEncoder.unusablePassword());
+        assertThat(passwordEncoder.matches(password, password)).isFalse();
+        assertThat(passwordEncoder.matches("", password)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(password)).isFalse();
+    }
+}
@@ -1,18 +1,31 @@
 package com.getrix.employeemanager.gateway.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
 import com.getrix.employeemanager.gateway.management.SecurityMetersService;
 import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import com.hazelcast.map.IMap;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
@@ -24,9 +37,18 @@ class JWTFilterTest {
 
     private TokenProvider tokenProvider;
 
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private MeterRegistry meterRegistry;
+
+    private IMap<String, Long> revokedTokens;
+
+    private TokenRevocationStore tokenRevocationStore;
+
     private JWTFilter jwtFilter;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     public void setup() {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
@@ -38,7 +60,23 @@ class JWTFilterTest {
         ReflectionTestUtils.setField(tokenProvider, "key", Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
-        jwtFilter = new JWTFilter(tokenProvider);
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(new ApplicationProperties(), meterRegistry);
+        revokedTokens = mock(IMap.class);
+        IMap<String, Long> revokedSubjects = mock(IMap.class);
+        when(revokedTokens.setAsync(anyString(), anyLong(), anyLong(), any(TimeUnit.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(revokedSubjects.setAsync(anyString(), anyLong(), anyLong(), any(TimeUnit.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        tokenRevocationStore =
+            new TokenRevocationStore(
+                new ApplicationProperties.Security.Revocation(),
+                Duration.ofDays(30),
+                revokedTokens,
+                revokedSubjects,
+                Clock.systemUTC()
+            );
+        jwtFilter = new JWTFilter(tokenProvider, verifiedTokenCache, tokenRevocationStore);
     }
 
     @Test
@@ -66,6 +104,118 @@ class JWTFilterTest {
                         .then()
             )
             .block();
+        assertThat(exchange.<String>getAttribute(JWTFilter.TOKEN_ATTRIBUTE)).isEqualTo(jwt);
+        assertThat(exchange.<Authentication>getAttribute(JWTFilter.AUTHENTICATION_ATTRIBUTE).getName()).isEqualTo("test-user");
+    }
+
+    @Test
+    void testJWTFilterReusesVerifiedToken() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        for (int i = 0; i < 2; i++) {
+            MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
+                .get("/api/test")
+                .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+            MockServerWebExchange exchange = MockServerWebExchange.from(request);
+            jwtFilter
+                .filter(
+                    exchange,
+                    it ->
+                        Mono
+                            .subscriberContext()
+                            .flatMap(c -> ReactiveSecurityContextHolder.getContext())
+                            .map(SecurityContext::getAuthentication)
+                            .doOnSuccess(auth -> assertThat(auth.getName()).isEqualTo("test-user"))
+                            .then()
+                )
+                .block();
+        }
+
+        assertThat(verifiedTokenCache.get(jwt)).isNotNull();
+        assertThat(cacheGets("hit")).isEqualTo(2);
+        assertThat(cacheGets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testJWTFilterDoesNotCacheExpiredToken() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -60000);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
+            .get("/api/test")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        jwtFilter
+            .filter(
+                exchange,
+                it ->
+                    Mono
+                        .subscriberContext()
+                        .flatMap(c -> ReactiveSecurityContextHolder.getContext())
+                        .map(SecurityContext::getAuthentication)
+                        .doOnSuccess(auth -> assertThat(auth).isNull())
+                        .then()
+            )
+            .block();
+
+        assertThat(verifiedTokenCache.get(jwt)).isNull();
+    }
+
+    @Test
+    void testJWTFilterIgnoresRevokedToken() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        TokenVerificationResult verification = tokenProvider.verifyToken(jwt);
+        when(revokedTokens.getAsync(verification.getTokenId()))
+            .thenReturn(CompletableFuture.completedFuture(verification.getExpiration().getEpochSecond()));
+        tokenRevocationStore.revoke(verification.getTokenId(), verification.getExpiration()).block();
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/test").header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt)
+        );
+        jwtFilter
+            .filter(
+                exchange,
+                it ->
+                    Mono
+                        .subscriberContext()
+                        .flatMap(c -> ReactiveSecurityContextHolder.getContext())
+                        .map(SecurityContext::getAuthentication)
+                        .doOnSuccess(auth -> assertThat(auth).isNull())
+                        .then()
+            )
+            .block();
+        assertThat(exchange.getAttributes()).doesNotContainKeys(JWTFilter.TOKEN_ATTRIBUTE, JWTFilter.AUTHENTICATION_ATTRIBUTE);
+    }
+
+    @Test
+    void testJWTFilterIgnoresTokensOfRevokedUser() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        // the verification of the token is cached before its user is revoked
+        jwtFilter.filter(MockServerWebExchange.from(bearerRequest(jwt)), it -> Mono.empty()).block();
+        tokenRevocationStore.revokeAll("test-user").block();
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(bearerRequest(jwt));
+        jwtFilter.filter(exchange, it -> Mono.empty()).block();
+
+        assertThat(exchange.getAttributes()).doesNotContainKeys(JWTFilter.TOKEN_ATTRIBUTE, JWTFilter.AUTHENTICATION_ATTRIBUTE);
     }
 
     @Test
@@ -87,6 +237,7 @@ class JWTFilterTest {
                         .then()
             )
             .block();
+        assertThat(exchange.getAttributes()).doesNotContainKeys(JWTFilter.TOKEN_ATTRIBUTE, JWTFilter.AUTHENTICATION_ATTRIBUTE);
     }
 
     @Test
@@ -152,4 +303,12 @@ class JWTFilterTest {
             )
             .block();
     }
+
+    private MockServerHttpRequest bearerRequest(String jwt) {
+        return MockServerHttpRequest.get("/api/test").header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt).build();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME).tag("result", result).functionCounter().count();
+    }
 }
@@ -0,0 +1,87 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+class JWTRelayGatewayFilterFactoryTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private TokenProvider tokenProvider;
+
+    private TokenRevocationStore tokenRevocationStore;
+
+    private GatewayFilter relayFilter;
+
+    @BeforeEach
+    public void setup() {
+        tokenProvider = mock(TokenProvider.class);
+        tokenRevocationStore = mock(TokenRevocationStore.class);
+        relayFilter = new JWTRelayGatewayFilterFactory(tokenProvider, tokenRevocationStore).apply(new Object());
+    }
+
+    @Test
+    void testRelayReusesTokenVerifiedByJWTFilter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/services/test").header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + TOKEN)
+        );
+        exchange.getAttributes().put(JWTFilter.TOKEN_ATTRIBUTE, TOKEN);
+        AtomicReference<ServerWebExchange> relayed = new AtomicReference<>();
+
+        relayFilter.filter(exchange, it -> Mono.fromRunnable(() -> relayed.set(it))).block();
+
+        verify(tokenProvider, never()).verifyToken(anyString());
+        assertThat(relayed.get()).isSameAs(exchange);
+    }
+
+    @Test
+    void testRelayVerifiesTokenWhenJWTFilterDidNotRun() {
+        when(tokenProvider.verifyToken(TOKEN)).thenReturn(TokenVerificationResult.failure(TokenVerificationResult.FailureCause.MALFORMED));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/services/test").header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + TOKEN)
+        );
+        AtomicReference<ServerWebExchange> relayed = new AtomicReference<>();
+
+        relayFilter.filter(exchange, it -> Mono.fromRunnable(() -> relayed.set(it))).block();
+
+        verify(tokenProvider).verifyToken(TOKEN);
+        assertThat(relayed.get()).isSameAs(exchange);
+    }
+
+    @Test
+    void testRelayChecksRevocationWhenJWTFilterDidNotRun() {
+        TokenVerificationResult verification = TokenVerificationResult.success(
+            new UsernamePasswordAuthenticationToken("test-user", TOKEN, Collections.emptyList()),
+            "token-id",
+            Instant.now(),
+            Instant.now().plusSeconds(60)
+        );
+        when(tokenProvider.verifyToken(TOKEN)).thenReturn(verification);
+        when(tokenRevocationStore.mightBeRevoked(verification)).thenReturn(true);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/services/test").header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + TOKEN)
+        );
+        AtomicReference<ServerWebExchange> relayed = new AtomicReference<>();
+
+        relayFilter.filter(exchange, it -> Mono.fromRunnable(() -> relayed.set(it))).block();
+
+        verify(tokenRevocationStore).mightBeRevoked(verification);
+        assertThat(relayed.get()).isSameAs(exchange);
+    }
+}
@@ -0,0 +1,275 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.getrix.employeemanager.gateway.management.SecurityMetersService;
+import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.KeyFactory;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+class JwtKeyRingTest {
+
+    private static final Duration MAX_TOKEN_VALIDITY = Duration.ofDays(30);
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties.Security.Jwt properties;
+
+    private ConcurrentMap<Long, JwtSigningKey> store;
+
+    private SecretKey keyEncryptionKey;
+
+    private MutableClock clock;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    public void setup() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setTokenValidityInSeconds(60);
+
+        properties = new ApplicationProperties.Security.Jwt();
+        properties.setSignatureAlgorithm("RS256");
+        properties.setKeyRotationPeriod(Duration.ofDays(7));
+        properties.setJwksCacheDuration(Duration.ofHours(1));
+
+        store = new ConcurrentHashMap<>();
+        keyEncryptionKey = JwtKeyRing.keyEncryptionKey(jHipsterProperties.getSecurity().getAuthentication().getJwt());
+        clock = new MutableClock(Instant.parse("2022-01-01T00:00:00Z"));
+        verifiedTokenCache = new VerifiedTokenCache(new ApplicationProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testKeyRingIsDisabledForHmacAlgorithm() {
+        properties.setSignatureAlgorithm("HS512");
+
+        JwtKeyRing keyRing = createKeyRing();
+
+        assertThat(keyRing.isEnabled()).isFalse();
+        assertThat(store).isEmpty();
+    }
+
+    @Test
+    void testTokenIsSignedWithKeyIdAndVerified() {
+        JwtKeyRing keyRing = createKeyRing();
+        TokenProvider tokenProvider = createTokenProvider(keyRing);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(keyIdOf(token)).isEqualTo(keyRing.getSigningKey().getKeyId());
+        assertThat(tokenProvider.verifyToken(token).isValid()).isTrue();
+        assertThat(jwkList(keyRing)).hasSize(1);
+        assertThat(jwkList(keyRing).get(0)).containsEntry("kty", "RSA").containsEntry("alg", "RS256").containsKeys("n", "e");
+    }
+
+    @Test
+    void testRotationKeepsPreviousTokensValid() {
+        JwtKeyRing keyRing = createKeyRing();
+        TokenProvider tokenProvider = createTokenProvider(keyRing);
+        String firstKeyId = keyRing.getSigningKey().getKeyId();
+        String oldToken = tokenProvider.createToken(createAuthentication(), false);
+
+        // the next key is published before it is used
+        clock.advance(Duration.ofDays(7).minus(Duration.ofMinutes(30)));
+        keyRing.refresh();
+        assertThat(jwkList(keyRing)).hasSize(2);
+        assertThat(keyRing.getSigningKey().getKeyId()).isEqualTo(firstKeyId);
+
+        clock.advance(Duration.ofHours(1));
+        keyRing.refresh();
+        String newToken = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(keyIdOf(newToken)).isNotEqualTo(firstKeyId);
+        assertThat(tokenProvider.verifyToken(newToken).isValid()).isTrue();
+        assertThat(tokenProvider.verifyToken(oldToken).isValid()).isTrue();
+
+        // the previous key is retired once all the tokens it signed have expired
+        clock.advance(MAX_TOKEN_VALIDITY.plus(Duration.ofHours(1)));
+        keyRing.refresh();
+        assertThat(keyRing.getVerificationKey(firstKeyId)).isNull();
+        assertThat(tokenProvider.verifyToken(oldToken).getFailureCause()).isEqualTo(TokenVerificationResult.FailureCause.INVALID_SIGNATURE);
+    }
+
+    @Test
+    void testInstancesShareTheKeys() {
+        JwtKeyRing keyRing = createKeyRing();
+        JwtKeyRing otherKeyRing = createKeyRing();
+
+        String token = createTokenProvider(keyRing).createToken(createAuthentication(), false);
+
+        assertThat(store).hasSize(1);
+        assertThat(createTokenProvider(otherKeyRing).verifyToken(token).isValid()).isTrue();
+    }
+
+    @Test
+    void testPrivateKeysAreSharedEncrypted() throws Exception {
+        JwtKeyRing keyRing = createKeyRing();
+        byte[] storedPrivateKey = store.values().iterator().next().getPrivateKey();
+
+        assertThat(storedPrivateKey).isNotEqualTo(keyRing.getSigningKey().getPrivateKey().getEncoded());
+        assertThatThrownBy(() -> KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(storedPrivateKey)))
+            .isInstanceOf(InvalidKeySpecException.class);
+
+        JHipsterProperties.Security.Authentication.Jwt otherSecret = new JHipsterProperties.Security.Authentication.Jwt();
+        otherSecret.setBase64Secret("b3RoZXItc2VjcmV0LW90aGVyLXNlY3JldC1vdGhlci1zZWNyZXQtb3RoZXItc2VjcmV0LW90aGVy");
+        SecretKey otherKeyEncryptionKey = JwtKeyRing.keyEncryptionKey(otherSecret);
+        assertThatThrownBy(() -> new JwtKeyRing(properties, MAX_TOKEN_VALIDITY, store, otherKeyEncryptionKey, clock, verifiedTokenCache))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testEllipticCurveJwk() {
+        properties.setSignatureAlgorithm("ES256");
+        JwtKeyRing keyRing = createKeyRing();
+        TokenProvider tokenProvider = createTokenProvider(keyRing);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.verifyToken(token).isValid()).isTrue();
+        Map<String, Object> jwk = jwkList(keyRing).get(0);
+        assertThat(jwk).containsEntry("kty", "EC").containsEntry("crv", "P-256").containsEntry("alg", "ES256");
+        // 32 bytes coordinates, base64url encoded without padding
+        assertThat((String) jwk.get("x")).hasSize(43);
+        assertThat((String) jwk.get("y")).hasSize(43);
+    }
+
+    @Test
+    void testSharedSecretTokensStayValidAfterSwitchingToKeyRing() {
+        TokenProvider hmacTokenProvider = new TokenProvider(jHipsterProperties, new SecurityMetersService(new SimpleMeterRegistry()));
+        String legacyToken = hmacTokenProvider.createToken(createAuthentication(), false);
+
+        TokenProvider tokenProvider = createTokenProvider(createKeyRing());
+
+        assertThat(tokenProvider.verifyToken(legacyToken).isValid()).isTrue();
+    }
+
+    @Test
+    void testSharedSecretTokensAreRejectedOnceAllExpired() {
+        TokenProvider hmacTokenProvider = new TokenProvider(jHipsterProperties, new SecurityMetersService(new SimpleMeterRegistry()));
+        String legacyToken = hmacTokenProvider.createToken(createAuthentication(), false);
+        JwtKeyRing keyRing = createKeyRing();
+        TokenProvider tokenProvider = createTokenProvider(keyRing);
+
+        clock.advance(MAX_TOKEN_VALIDITY);
+
+        assertThat(keyRing.acceptsSharedSecretTokens()).isFalse();
+        assertThat(tokenProvider.verifyToken(legacyToken).getFailureCause())
+            .isEqualTo(TokenVerificationResult.FailureCause.INVALID_SIGNATURE);
+    }
+
+    @Test
+    void testUnknownKeyReloadsTheRing() {
+        TokenProvider tokenProvider = createTokenProvider(createKeyRing());
+
+        // another instance restarted the whole cluster, and generated a new first key
+        store.clear();
+        String token = createTokenProvider(createKeyRing()).createToken(createAuthentication(), false);
+        assertThat(tokenProvider.verifyToken(token).isValid()).isTrue();
+
+        // the reloads are rate limited
+        store.clear();
+        String otherToken = createTokenProvider(createKeyRing()).createToken(createAuthentication(), false);
+        assertThat(tokenProvider.verifyToken(otherToken).getFailureCause())
+            .isEqualTo(TokenVerificationResult.FailureCause.INVALID_SIGNATURE);
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(tokenProvider.verifyToken(otherToken).isValid()).isTrue();
+    }
+
+    @Test
+    void testRemovedKeyInvalidatesVerifiedTokens() {
+        JwtKeyRing keyRing = createKeyRing();
+        TokenProvider tokenProvider = createTokenProvider(keyRing);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        verifiedTokenCache.put(token, tokenProvider.verifyToken(token));
+        clock.advance(Duration.ofDays(7).minus(Duration.ofMinutes(30)));
+        keyRing.refresh();
+        assertThat(verifiedTokenCache.get(token)).isNotNull();
+
+        // the first key is deleted from Hazelcast, such as when it leaked
+        store.remove(1L);
+        keyRing.refresh();
+
+        assertThat(verifiedTokenCache.get(token)).isNull();
+    }
+
+    private JwtKeyRing createKeyRing() {
+        return new JwtKeyRing(properties, MAX_TOKEN_VALIDITY, store, keyEncryptionKey, clock, verifiedTokenCache);
+    }
+
+    private TokenProvider createTokenProvider(JwtKeyRing keyRing) {
+        return new TokenProvider(jHipsterProperties, new SecurityMetersService(new SimpleMeterRegistry()), keyRing);
+    }
+
+    private Authentication createAuthentication() {
+        return new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+    }
+
+    private String keyIdOf(String token) {
+        String header = token.substring(0, token.indexOf('.'));
+        return (String) Jwts.parserBuilder().build().parseClaimsJwt(header + ".e30.").getHeader().get("kid");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> jwkList(JwtKeyRing keyRing) {
+        return (List<Map<String, Object>>) keyRing.getJwks().get("keys");
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class TokenIdBloomFilterTest {
+
+    @Test
+    void testFilterContainsInsertedIds() {
+        TokenIdBloomFilter filter = new TokenIdBloomFilter(1000, 0.01);
+        List<String> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String tokenId = UUID.randomUUID().toString();
+            tokenIds.add(tokenId);
+            filter.put(tokenId);
+        }
+
+        assertThat(tokenIds).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void testFalsePositiveRateMatchesSizing() {
+        TokenIdBloomFilter filter = new TokenIdBloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void testInvalidSizingIsRejected() {
+        assertThatThrownBy(() -> new TokenIdBloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenIdBloomFilter(1000, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
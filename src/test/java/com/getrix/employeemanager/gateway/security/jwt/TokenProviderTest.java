@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.getrix.employeemanager.gateway.management.SecurityMetersService;
 import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -88,6 +89,43 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testVerifyTokenReturnsAuthenticationWhenJWTisValid() {
+        Authentication authentication = createAuthentication();
+        String token = tokenProvider.createToken(authentication, false);
+
+        TokenVerificationResult result = tokenProvider.verifyToken(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getFailureCause()).isNull();
+        assertThat(result.getAuthentication().getName()).isEqualTo("anonymous");
+        assertThat(result.getAuthentication().getCredentials()).isEqualTo(token);
+        assertThat(result.getAuthentication().getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+        String otherTokenId = tokenProvider.verifyToken(tokenProvider.createToken(authentication, false)).getTokenId();
+        assertThat(result.getTokenId()).isNotEmpty().isNotEqualTo(otherTokenId);
+        assertThat(result.getIssuedAt()).isBefore(result.getExpiration());
+    }
+
+    @Test
+    void testVerifyTokenReturnsFailureCauseWhenJWTisRejected() {
+        assertThat(tokenProvider.verifyToken(createTokenWithDifferentSignature()).getFailureCause())
+            .isEqualTo(TokenVerificationResult.FailureCause.INVALID_SIGNATURE);
+        assertThat(tokenProvider.verifyToken(createUnsupportedToken()).getFailureCause())
+            .isEqualTo(TokenVerificationResult.FailureCause.UNSUPPORTED);
+        assertThat(tokenProvider.verifyToken("").getFailureCause()).isEqualTo(TokenVerificationResult.FailureCause.INVALID);
+
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String expiredToken = tokenProvider.createToken(createAuthentication(), false);
+
+        TokenVerificationResult result = tokenProvider.verifyToken(expiredToken);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getAuthentication()).isNull();
+        assertThat(result.getFailureCause()).isEqualTo(TokenVerificationResult.FailureCause.EXPIRED);
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -116,6 +154,41 @@ class TokenProviderTest {
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    @Test
+    void testCreateTokenMatchesJjwtBuilder() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        String expected = Jwts
+            .builder()
+            .setId(claims.getId())
+            .setSubject("anonymous")
+            .claim("auth", AuthoritiesConstants.ANONYMOUS)
+            .setIssuedAt(claims.getIssuedAt())
+            .signWith(key, SignatureAlgorithm.HS512)
+            .setExpiration(claims.getExpiration())
+            .compact();
+
+        assertThat(token).isEqualTo(expected);
+    }
+
+    @Test
+    void testCreateTokenEscapesClaims() {
+        List<GrantedAuthority> authorities = List.of(
+            new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN),
+            new SimpleGrantedAuthority(AuthoritiesConstants.USER)
+        );
+        Authentication authentication = new UsernamePasswordAuthenticationToken("an\"ony\\mous\t", "anonymous", authorities);
+
+        TokenVerificationResult result = tokenProvider.verifyToken(tokenProvider.createToken(authentication, true));
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getAuthentication().getName()).isEqualTo("an\"ony\\mous\t");
+        assertThat(result.getAuthentication().getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
@@ -0,0 +1,128 @@
+package com.getrix.employeemanager.gateway.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
+import com.hazelcast.map.IMap;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+class TokenRevocationStoreTest {
+
+    private static final Instant NOW = Instant.parse("2022-01-01T00:00:00Z");
+
+    private static final Duration MAX_TOKEN_VALIDITY = Duration.ofDays(30);
+
+    private IMap<String, Long> revokedTokens;
+
+    private IMap<String, Long> revokedSubjects;
+
+    private TokenRevocationStore tokenRevocationStore;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        revokedTokens = mock(IMap.class);
+        revokedSubjects = mock(IMap.class);
+        when(revokedTokens.setAsync(anyString(), anyLong(), anyLong(), any(TimeUnit.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(revokedSubjects.setAsync(anyString(), anyLong(), anyLong(), any(TimeUnit.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        tokenRevocationStore =
+            new TokenRevocationStore(
+                new ApplicationProperties.Security.Revocation(),
+                MAX_TOKEN_VALIDITY,
+                revokedTokens,
+                revokedSubjects,
+                Clock.fixed(NOW, ZoneOffset.UTC)
+            );
+    }
+
+    @Test
+    void testTokenNotRevokedIsCheckedLocally() {
+        TokenVerificationResult verification = verification("test-user", "token-id", NOW);
+
+        assertThat(tokenRevocationStore.mightBeRevoked(verification)).isFalse();
+        assertThat(tokenRevocationStore.isRevoked(verification).block()).isFalse();
+        verify(revokedTokens, never()).getAsync(anyString());
+    }
+
+    @Test
+    void testRevokedTokenIsConfirmedByMap() {
+        Instant expiration = NOW.plusSeconds(60);
+        when(revokedTokens.getAsync("token-id")).thenReturn(CompletableFuture.completedFuture(expiration.getEpochSecond()));
+
+        tokenRevocationStore.revoke("token-id", expiration).block();
+
+        TokenVerificationResult verification = verification("test-user", "token-id", NOW);
+        assertThat(tokenRevocationStore.mightBeRevoked(verification)).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(verification).block()).isTrue();
+        assertThat(tokenRevocationStore.mightBeRevoked(verification("test-user", "other-token-id", NOW))).isFalse();
+        verify(revokedTokens).setAsync("token-id", expiration.getEpochSecond(), 61, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testFilterFalsePositiveIsResolvedByMap() {
+        when(revokedTokens.keySet()).thenReturn(Set.of("token-id"));
+        when(revokedTokens.getAsync("token-id")).thenReturn(CompletableFuture.completedFuture(null));
+        tokenRevocationStore.refresh();
+
+        TokenVerificationResult verification = verification("test-user", "token-id", NOW);
+        assertThat(tokenRevocationStore.mightBeRevoked(verification)).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(verification).block()).isFalse();
+    }
+
+    @Test
+    void testExpiredTokenIsNotRevoked() {
+        tokenRevocationStore.revoke("token-id", NOW.minusSeconds(60)).block();
+
+        assertThat(tokenRevocationStore.mightBeRevoked(verification("test-user", "token-id", NOW))).isFalse();
+        verify(revokedTokens, never()).setAsync(anyString(), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void testRevokeAllRevokesTokensIssuedSoFar() {
+        tokenRevocationStore.revokeAll("test-user").block();
+
+        assertThat(tokenRevocationStore.isRevoked(verification("test-user", "token-id", NOW.minusSeconds(60))).block()).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(verification("test-user", "token-id", NOW)).block()).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(verification("test-user", null, null)).block()).isTrue();
+        assertThat(tokenRevocationStore.mightBeRevoked(verification("test-user", "token-id", NOW.plusSeconds(1)))).isFalse();
+        assertThat(tokenRevocationStore.mightBeRevoked(verification("other-user", "token-id", NOW))).isFalse();
+        verify(revokedSubjects).setAsync("test-user", NOW.getEpochSecond(), MAX_TOKEN_VALIDITY.getSeconds(), TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testRefreshLoadsUserRevocations() {
+        when(revokedSubjects.entrySet()).thenReturn(Collections.singletonMap("test-user", NOW.getEpochSecond()).entrySet());
+
+        tokenRevocationStore.refresh();
+
+        assertThat(tokenRevocationStore.mightBeRevoked(verification("test-user", "token-id", NOW))).isTrue();
+    }
+
+    private static TokenVerificationResult verification(String subject, String tokenId, Instant issuedAt) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            subject,
+            "token",
+            Collections.emptyList()
+        );
+        return TokenVerificationResult.success(authentication, tokenId, issuedAt, NOW.plus(Duration.ofDays(1)));
+    }
+}
@@ -14,6 +14,7 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -24,6 +25,7 @@ import javax.mail.internet.MimeMultipart;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
@@ -177,6 +179,28 @@ class MailServiceIT {
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
+    @Test
+    void testSendCreationEmails() throws Exception {
+        doNothing().when(javaMailSender).send(ArgumentMatchers.<MimeMessage[]>any());
+        User user = new User();
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        user.setLogin("john");
+        user.setEmail("john.doe@example.com");
+        User otherUser = new User();
+        otherUser.setLangKey(Constants.DEFAULT_LANGUAGE);
+        otherUser.setLogin("jane");
+        otherUser.setEmail("jane.doe@example.com");
+        User userWithoutEmail = new User();
+        userWithoutEmail.setLangKey(Constants.DEFAULT_LANGUAGE);
+        userWithoutEmail.setLogin("jim");
+        mailService.sendCreationEmails(List.of(user, otherUser, userWithoutEmail));
+        verify(javaMailSender).send(messageCaptor.capture(), messageCaptor.capture());
+        List<MimeMessage> messages = messageCaptor.getAllValues();
+        assertThat(messages.get(0).getAllRecipients()[0]).hasToString(user.getEmail());
+        assertThat(messages.get(1).getAllRecipients()[0]).hasToString(otherUser.getEmail());
+        assertThat(messages.get(1).getContent().toString()).contains("jane");
+    }
+
     @Test
     void testSendPasswordResetMail() throws Exception {
         User user = new User();
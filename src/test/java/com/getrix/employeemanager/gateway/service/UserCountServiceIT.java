@@ -0,0 +1,64 @@
+package com.getrix.employeemanager.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.getrix.employeemanager.gateway.IntegrationTest;
+import com.getrix.employeemanager.gateway.config.Constants;
+import com.getrix.employeemanager.gateway.domain.User;
+import com.getrix.employeemanager.gateway.repository.UserRepository;
+import com.getrix.employeemanager.gateway.service.dto.AdminUserDTO;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link UserCountService}.
+ */
+@IntegrationTest
+class UserCountServiceIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserCountService userCountService;
+
+    @BeforeEach
+    public void init() {
+        userRepository.deleteAllUserAuthorities().block();
+        userRepository.deleteAll().block();
+        userCountService.recount().block();
+    }
+
+    @Test
+    void assertThatCountFollowsUsersCreatedAndDeleted() {
+        assertThat(userService.countManagedUsers().block()).isZero();
+
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin("user-count");
+        userDTO.setEmail("user-count@localhost");
+        userService.createUser(userDTO).block();
+        assertThat(userService.countManagedUsers().block()).isEqualTo(1);
+
+        userService.deleteUser("user-count").block();
+        assertThat(userService.countManagedUsers().block()).isZero();
+    }
+
+    @Test
+    void assertThatUsersCreatedElsewhereAreCountedOnRecount() {
+        User user = new User();
+        user.setLogin("user-count-elsewhere");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setCreatedBy(Constants.SYSTEM);
+        userRepository.save(user).block();
+
+        assertThat(userService.countManagedUsers().block()).isZero();
+        assertThat(userCountService.recount().block()).isEqualTo(1);
+        assertThat(userService.countManagedUsers().block()).isEqualTo(1);
+    }
+}
@@ -3,10 +3,13 @@ package com.getrix.employeemanager.gateway.service;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.getrix.employeemanager.gateway.IntegrationTest;
+import com.getrix.employeemanager.gateway.config.ApplicationProperties;
 import com.getrix.employeemanager.gateway.config.Constants;
 import com.getrix.employeemanager.gateway.domain.User;
 import com.getrix.employeemanager.gateway.repository.UserRepository;
+import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
 import com.getrix.employeemanager.gateway.service.dto.AdminUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -44,6 +47,12 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private User user;
 
     @BeforeEach
@@ -145,7 +154,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
+        userService.removeNotActivatedUsersReactively().block();
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo).collectList().block();
         assertThat(users).isEmpty();
     }
@@ -163,8 +172,40 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
+        userService.removeNotActivatedUsersReactively().block();
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId()).blockOptional();
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    void assertThatNotActivatedUsersAreDeletedByChunks() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            User notActivatedUser = new User();
+            notActivatedUser.setLogin("not-activated-" + i);
+            notActivatedUser.setPassword(RandomStringUtils.random(60));
+            notActivatedUser.setActivated(false);
+            notActivatedUser.setActivationKey(RandomStringUtils.random(20));
+            notActivatedUser.setCreatedBy(Constants.SYSTEM);
+            notActivatedUser = userRepository.save(notActivatedUser).block();
+            notActivatedUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
+            userRepository.save(notActivatedUser).block();
+            userRepository.saveUserAuthorities(notActivatedUser.getId(), List.of(AuthoritiesConstants.USER)).block();
+        }
+        userRepository.save(user).block();
+        double deleted = meterRegistry.get("user.purge.deleted").counter().count();
+        long chunks = meterRegistry.get("user.purge.chunks").timer().count();
+
+        int chunkSize = applicationProperties.getUserPurge().getChunkSize();
+        applicationProperties.getUserPurge().setChunkSize(2);
+        try {
+            assertThat(userService.removeNotActivatedUsersReactively().block()).isEqualTo(5);
+        } finally {
+            applicationProperties.getUserPurge().setChunkSize(chunkSize);
+        }
+
+        assertThat(userRepository.findAll().map(User::getLogin).collectList().block()).containsExactly(DEFAULT_LOGIN);
+        assertThat(meterRegistry.get("user.purge.deleted").counter().count() - deleted).isEqualTo(5);
+        assertThat(meterRegistry.get("user.purge.chunks").timer().count() - chunks).isEqualTo(3);
+    }
 }
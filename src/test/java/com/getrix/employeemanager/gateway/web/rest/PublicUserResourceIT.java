@@ -9,6 +9,7 @@ import com.getrix.employeemanager.gateway.repository.EntityManager;
 import com.getrix.employeemanager.gateway.repository.UserRepository;
 import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
 import com.getrix.employeemanager.gateway.service.dto.UserDTO;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,7 @@ import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWeb
 import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 /**
@@ -75,6 +77,66 @@ class PublicUserResourceIT {
         assertThat(foundUser.getLogin()).isEqualTo(DEFAULT_LOGIN);
     }
 
+    @Test
+    void getAllPublicUsersByCursor() {
+        // Initialize the database
+        userRepository.save(user).block();
+        User otherUser = UserResourceIT.createEntity(em);
+        userRepository.save(otherUser).block();
+        User notActivatedUser = UserResourceIT.createEntity(em);
+        notActivatedUser.setActivated(false);
+        userRepository.save(notActivatedUser).block();
+
+        // Walk the activated users, one per page, by descending id
+        EntityExchangeResult<List<UserDTO>> firstPage = webTestClient
+            .get()
+            .uri("/api/users?cursor=&size=1&sort=id,DESC")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBodyList(UserDTO.class)
+            .returnResult();
+        assertThat(firstPage.getResponseBody()).extracting(UserDTO::getLogin).containsExactly(otherUser.getLogin());
+
+        EntityExchangeResult<List<UserDTO>> secondPage = webTestClient
+            .get()
+            .uri("/api/users?cursor={cursor}&size=1", firstPage.getResponseHeaders().getFirst("X-Next-Cursor"))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(UserDTO.class)
+            .returnResult();
+        assertThat(secondPage.getResponseBody()).extracting(UserDTO::getLogin).containsExactly(DEFAULT_LOGIN);
+
+        webTestClient
+            .get()
+            .uri("/api/users?cursor={cursor}&size=1", secondPage.getResponseHeaders().getFirst("X-Next-Cursor"))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
+            .expectBodyList(UserDTO.class)
+            .hasSize(0);
+    }
+
+    @Test
+    void getAllPublicUsersByInvalidCursor() {
+        webTestClient.get().uri("/api/users?cursor=invalid").accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isBadRequest();
+        webTestClient
+            .get()
+            .uri("/api/users?cursor=&sort=firstName,ASC")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getAllAuthorities() {
         webTestClient
@@ -0,0 +1,125 @@
+package com.getrix.employeemanager.gateway.web.rest;
+
+import com.getrix.employeemanager.gateway.IntegrationTest;
+import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import com.getrix.employeemanager.gateway.security.jwt.JWTFilter;
+import com.getrix.employeemanager.gateway.security.jwt.TokenProvider;
+import com.getrix.employeemanager.gateway.web.rest.vm.TokenRevocationVM;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link TokenRevocationResource} REST controller.
+ */
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_TIMEOUT)
+@IntegrationTest
+class TokenRevocationResourceIT {
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private String adminToken;
+
+    @BeforeEach
+    public void setup() {
+        adminToken = createToken("token-revocation-admin", AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void revokeToken() throws Exception {
+        String token = createToken("token-revocation-user", AuthoritiesConstants.USER);
+        String otherToken = createToken("token-revocation-user", AuthoritiesConstants.USER);
+        assertAuthenticated(token, "token-revocation-user");
+
+        TokenRevocationVM tokenRevocation = new TokenRevocationVM();
+        tokenRevocation.setToken(token);
+        webTestClient
+            .post()
+            .uri("/api/admin/tokens/revoke")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + adminToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(tokenRevocation))
+            .exchange()
+            .expectStatus()
+            .isNoContent();
+
+        assertNotAuthenticated(token);
+        assertAuthenticated(otherToken, "token-revocation-user");
+    }
+
+    @Test
+    void revokeInvalidToken() throws Exception {
+        TokenRevocationVM tokenRevocation = new TokenRevocationVM();
+        tokenRevocation.setToken("wrong_jwt");
+        webTestClient
+            .post()
+            .uri("/api/admin/tokens/revoke")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + adminToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(tokenRevocation))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void revokeUserTokens() {
+        String token = createToken("token-revocation-flushed", AuthoritiesConstants.USER);
+        String rememberMeToken = tokenProvider.createToken(authentication("token-revocation-flushed", AuthoritiesConstants.USER), true);
+        String otherUserToken = createToken("token-revocation-other", AuthoritiesConstants.USER);
+
+        webTestClient
+            .delete()
+            .uri("/api/admin/users/{login}/tokens", "token-revocation-flushed")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + adminToken)
+            .exchange()
+            .expectStatus()
+            .isNoContent();
+
+        assertNotAuthenticated(token);
+        assertNotAuthenticated(rememberMeToken);
+        assertAuthenticated(otherUserToken, "token-revocation-other");
+    }
+
+    private String createToken(String login, String authority) {
+        return tokenProvider.createToken(authentication(login, authority), false);
+    }
+
+    private UsernamePasswordAuthenticationToken authentication(String login, String authority) {
+        return new UsernamePasswordAuthenticationToken(login, "", Collections.singletonList(new SimpleGrantedAuthority(authority)));
+    }
+
+    private void assertAuthenticated(String token, String login) {
+        webTestClient
+            .get()
+            .uri("/api/authenticate")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(String.class)
+            .isEqualTo(login);
+    }
+
+    private void assertNotAuthenticated(String token) {
+        webTestClient
+            .get()
+            .uri("/api/authenticate")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .isEmpty();
+    }
+}
@@ -1,14 +1,30 @@
 package com.getrix.employeemanager.gateway.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import com.getrix.employeemanager.gateway.IntegrationTest;
 import com.getrix.employeemanager.gateway.config.Constants;
 import com.getrix.employeemanager.gateway.domain.User;
 import com.getrix.employeemanager.gateway.repository.UserRepository;
+import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import com.getrix.employeemanager.gateway.security.AuthorityRegistry;
+import com.getrix.employeemanager.gateway.security.jwt.JWTFilter;
+import com.getrix.employeemanager.gateway.security.jwt.TokenProvider;
+import com.getrix.employeemanager.gateway.service.dto.PasswordChangeDTO;
 import com.getrix.employeemanager.gateway.web.rest.vm.LoginVM;
+import com.getrix.employeemanager.gateway.web.rest.vm.RefreshTokenVM;
+import com.jayway.jsonpath.JsonPath;
+import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -25,6 +41,9 @@ class UserJWTControllerIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenProvider tokenProvider;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -54,6 +73,8 @@ class UserJWTControllerIT {
             .valueMatches("Authorization", "Bearer .+")
             .expectBody()
             .jsonPath("$.id_token")
+            .isNotEmpty()
+            .jsonPath("$.refresh_token")
             .isNotEmpty();
     }
 
@@ -87,6 +108,34 @@ class UserJWTControllerIT {
             .isNotEmpty();
     }
 
+    @Test
+    void testAuthorizeRehashesPasswordOfAnotherCost() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-rehash");
+        user.setEmail("user-jwt-controller-rehash@example.com");
+        user.setActivated(true);
+        user.setPassword(new BCryptPasswordEncoder(4).encode("test"));
+        user.setCreatedBy(Constants.SYSTEM);
+
+        userRepository.save(user).block();
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-rehash");
+        login.setPassword("test");
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        String passwordHash = userRepository.findOneByLogin("user-jwt-controller-rehash").block().getPassword();
+        assertThat(passwordHash).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("test", passwordHash)).isTrue();
+    }
+
     @Test
     void testAuthorizeFails() throws Exception {
         LoginVM login = new LoginVM();
@@ -106,4 +155,170 @@ class UserJWTControllerIT {
             .jsonPath("$.id_token")
             .doesNotExist();
     }
+
+    @Test
+    void testAuthorizeIsThrottled() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("throttled-user");
+        login.setPassword("wrong password");
+        for (int i = 0; i < 10; i++) {
+            webTestClient
+                .post()
+                .uri("/api/authenticate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+        }
+
+        // the login is matched case-insensitively
+        login.setUsername("Throttled-User");
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader()
+            .exists(HttpHeaders.RETRY_AFTER);
+    }
+
+    @Test
+    void testRefresh() throws Exception {
+        String refreshToken = JsonPath.read(authenticate("user-jwt-controller-refresh"), "$.refresh_token");
+
+        String body = refresh(refreshToken)
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueMatches("Authorization", "Bearer .+")
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        String rotatedRefreshToken = JsonPath.read(body, "$.refresh_token");
+        assertThat(rotatedRefreshToken).isNotEmpty().isNotEqualTo(refreshToken);
+        assertAuthenticated(JsonPath.read(body, "$.id_token"), "user-jwt-controller-refresh");
+        refresh(rotatedRefreshToken).expectStatus().isOk();
+    }
+
+    @Test
+    void testRefreshTokenReuseRevokesFamily() throws Exception {
+        String refreshToken = JsonPath.read(authenticate("user-jwt-controller-reuse"), "$.refresh_token");
+        String body = refresh(refreshToken).expectStatus().isOk().expectBody(String.class).returnResult().getResponseBody();
+
+        refresh(refreshToken).expectStatus().isUnauthorized().expectHeader().doesNotExist("Authorization");
+
+        refresh(JsonPath.read(body, "$.refresh_token")).expectStatus().isUnauthorized();
+        webTestClient
+            .get()
+            .uri("/api/authenticate")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + JsonPath.read(body, "$.id_token"))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .isEmpty();
+    }
+
+    @Test
+    void testRefreshAfterUserTokensRevocation() throws Exception {
+        String refreshToken = JsonPath.read(authenticate("user-jwt-controller-revoked"), "$.refresh_token");
+        List<GrantedAuthority> authorities = Collections.singletonList(AuthorityRegistry.of(AuthoritiesConstants.ADMIN));
+        String adminToken = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("user-jwt-controller-admin", "", authorities),
+            false
+        );
+
+        webTestClient
+            .delete()
+            .uri("/api/admin/users/{login}/tokens", "user-jwt-controller-revoked")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + adminToken)
+            .exchange()
+            .expectStatus()
+            .isNoContent();
+
+        refresh(refreshToken).expectStatus().isUnauthorized().expectHeader().doesNotExist("Authorization");
+    }
+
+    @Test
+    void testRefreshAfterPasswordChange() throws Exception {
+        String body = authenticate("user-jwt-controller-password");
+
+        webTestClient
+            .post()
+            .uri("/api/account/change-password")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + JsonPath.read(body, "$.id_token"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(new PasswordChangeDTO("test", "new password")))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        refresh(JsonPath.read(body, "$.refresh_token")).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testRefreshFails() throws Exception {
+        refresh("wrong-refresh-token")
+            .expectStatus()
+            .isUnauthorized()
+            .expectHeader()
+            .doesNotExist("Authorization")
+            .expectBody()
+            .jsonPath("$.id_token")
+            .doesNotExist();
+    }
+
+    private String authenticate(String login) throws Exception {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        user.setCreatedBy(Constants.SYSTEM);
+
+        userRepository.save(user).block();
+
+        LoginVM loginVM = new LoginVM();
+        loginVM.setUsername(login);
+        loginVM.setPassword("test");
+        return webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(loginVM))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec refresh(String refreshToken) throws Exception {
+        RefreshTokenVM refreshTokenVM = new RefreshTokenVM();
+        refreshTokenVM.setRefreshToken(refreshToken);
+        return webTestClient
+            .post()
+            .uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(refreshTokenVM))
+            .exchange();
+    }
+
+    private void assertAuthenticated(String token, String login) {
+        webTestClient
+            .get()
+            .uri("/api/authenticate")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(String.class)
+            .isEqualTo(login);
+    }
 }
@@ -10,11 +10,14 @@ import com.getrix.employeemanager.gateway.repository.AuthorityRepository;
 import com.getrix.employeemanager.gateway.repository.EntityManager;
 import com.getrix.employeemanager.gateway.repository.UserRepository;
 import com.getrix.employeemanager.gateway.security.AuthoritiesConstants;
+import com.getrix.employeemanager.gateway.security.RehashingPasswordEncoder;
 import com.getrix.employeemanager.gateway.service.dto.AdminUserDTO;
+import com.getrix.employeemanager.gateway.service.dto.UserImportResultDTO;
 import com.getrix.employeemanager.gateway.service.dto.UserDTO;
 import com.getrix.employeemanager.gateway.service.mapper.UserMapper;
 import com.getrix.employeemanager.gateway.web.rest.vm.ManagedUserVM;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.function.Consumer;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -23,9 +26,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 
 /**
  * Integration tests for the {@link UserResource} REST controller.
@@ -295,6 +301,246 @@ class UserResourceIT {
         assertThat(foundUser.getAuthorities()).containsExactly(AuthoritiesConstants.USER);
     }
 
+    @Test
+    void getAllUsersPagedAndSorted() {
+        // Initialize the database
+        userRepository.save(user).block();
+        User otherUser = createEntity(em);
+        otherUser.setLogin("zz" + otherUser.getLogin());
+        userRepository.save(otherUser).block();
+        authorityRepository
+            .findById(AuthoritiesConstants.ADMIN)
+            .flatMap(authority -> userRepository.saveUserAuthority(otherUser.getId(), authority.getName()))
+            .block();
+
+        // Get the second page, one user per page, sorted by login
+        List<AdminUserDTO> foundUsers = webTestClient
+            .get()
+            .uri("/api/admin/users?sort=login,DESC&page=1&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(foundUsers).extracting(AdminUserDTO::getLogin).containsExactly(DEFAULT_LOGIN);
+
+        foundUsers =
+            webTestClient
+                .get()
+                .uri("/api/admin/users?sort=login,DESC&page=0&size=1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(AdminUserDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(foundUsers).extracting(AdminUserDTO::getLogin).containsExactly(otherUser.getLogin());
+        assertThat(foundUsers.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void getAllUsersByCursor() {
+        // Initialize the database
+        userRepository.save(user).block();
+        authorityRepository
+            .findById(AuthoritiesConstants.USER)
+            .flatMap(authority -> userRepository.saveUserAuthority(user.getId(), authority.getName()))
+            .block();
+        User otherUser = createEntity(em);
+        otherUser.setLogin("zz" + otherUser.getLogin());
+        userRepository.save(otherUser).block();
+
+        // Walk the users, one per page, by login
+        EntityExchangeResult<List<AdminUserDTO>> firstPage = webTestClient
+            .get()
+            .uri("/api/admin/users?cursor=&size=1&sort=login,ASC")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBodyList(AdminUserDTO.class)
+            .returnResult();
+        assertThat(firstPage.getResponseBody()).extracting(AdminUserDTO::getLogin).containsExactly(DEFAULT_LOGIN);
+        assertThat(firstPage.getResponseBody().get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+        assertThat(firstPage.getResponseHeaders().getFirst(HttpHeaders.LINK)).contains("rel=\"next\"");
+
+        webTestClient
+            .get()
+            .uri("/api/admin/users?cursor={cursor}&size=1", firstPage.getResponseHeaders().getFirst("X-Next-Cursor"))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(AdminUserDTO.class)
+            .value(users -> assertThat(users).extracting(AdminUserDTO::getLogin).containsExactly(otherUser.getLogin()));
+    }
+
+    @Test
+    void exportUsers() {
+        // Initialize the database
+        userRepository.save(user).block();
+        authorityRepository
+            .findById(AuthoritiesConstants.USER)
+            .flatMap(authority -> userRepository.saveUserAuthority(user.getId(), authority.getName()))
+            .block();
+        User otherUser = createEntity(em);
+        userRepository.save(otherUser).block();
+
+        // Stream all the users
+        List<AdminUserDTO> exportedUsers = webTestClient
+            .get()
+            .uri("/api/admin/users/export")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .expectHeader()
+            .exists(HttpHeaders.LAST_MODIFIED)
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(exportedUsers).extracting(AdminUserDTO::getLogin).containsExactly(DEFAULT_LOGIN, otherUser.getLogin());
+        assertThat(exportedUsers.get(0).getEmail()).isEqualTo(DEFAULT_EMAIL);
+        assertThat(exportedUsers.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void exportUsersModifiedSince() {
+        // Initialize the database
+        user.setLastModifiedDate(Instant.now().minusSeconds(3600));
+        userRepository.save(user).block();
+        User otherUser = createEntity(em);
+        userRepository.save(otherUser).block();
+
+        // Stream the users modified in the last minute
+        webTestClient
+            .get()
+            .uri("/api/admin/users/export")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .ifModifiedSince(Instant.now().minusSeconds(60).atZone(ZoneOffset.UTC))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .as(users -> assertThat(users.block()).extracting(AdminUserDTO::getLogin).containsExactly(otherUser.getLogin()));
+    }
+
+    @Test
+    void exportUsersAsCsv() {
+        // Initialize the database
+        user.setFirstName("john, \"jr\"");
+        userRepository.save(user).block();
+
+        webTestClient
+            .get()
+            .uri("/api/admin/users/export")
+            .accept(MediaType.parseMediaType("text/csv"))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.parseMediaType("text/csv"))
+            .expectBody(String.class)
+            .value(csv -> {
+                String[] lines = csv.split("\n");
+                assertThat(lines).hasSize(2);
+                assertThat(lines[0]).startsWith("id,login,firstName,lastName,email,");
+                assertThat(lines[1]).startsWith(user.getId() + "," + DEFAULT_LOGIN + ",\"john, \"\"jr\"\"\"," + DEFAULT_LASTNAME + ",");
+            });
+    }
+
+    @Test
+    void importUsers() {
+        // Initialize the database
+        userRepository.save(user).block();
+
+        String users =
+            "{\"login\":\"import-first\",\"email\":\"import-first@localhost\",\"langKey\":\"en\"}\n" +
+            "{\"login\":\"" + DEFAULT_LOGIN + "\",\"email\":\"import-existing@localhost\"}\n" +
+            "{\"login\":\"import invalid!\",\"email\":\"import-invalid@localhost\"}\n" +
+            "{\"login\":\"import-duplicate\",\"email\":\"IMPORT-FIRST@localhost\"}\n" +
+            "{\"login\":\"import-second\",\"authorities\":[\"" + AuthoritiesConstants.ADMIN + "\"]}\n";
+        List<UserImportResultDTO> results = webTestClient
+            .post()
+            .uri("/api/admin/users/import")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(users)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(UserImportResultDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(results).extracting(UserImportResultDTO::getRow).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(results)
+            .extracting(UserImportResultDTO::getStatus)
+            .containsExactly(
+                UserImportResultDTO.Status.CREATED,
+                UserImportResultDTO.Status.DUPLICATE,
+                UserImportResultDTO.Status.INVALID,
+                UserImportResultDTO.Status.DUPLICATE,
+                UserImportResultDTO.Status.CREATED
+            );
+        assertThat(results.get(2).getMessage()).startsWith("login: ");
+        assertPersistedUsers(persistedUsers ->
+            assertThat(persistedUsers).extracting(User::getLogin).containsExactlyInAnyOrder(DEFAULT_LOGIN, "import-first", "import-second")
+        );
+        User importedUser = userRepository.findOneWithAuthoritiesByLogin("import-second").block();
+        assertThat(importedUser.isActivated()).isTrue();
+        assertThat(importedUser.getPassword()).startsWith(RehashingPasswordEncoder.UNUSABLE_PASSWORD_PREFIX);
+        assertThat(importedUser.getResetKey()).isNotNull();
+        assertThat(importedUser.getLangKey()).isEqualTo(Constants.DEFAULT_LANGUAGE);
+        assertThat(importedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void importUsersFromCsv() {
+        String csv =
+            "login,firstName,lastName,email,authorities\n" +
+            "import-csv,\"Doe, Jane\",,import-csv@localhost,\"" +
+            AuthoritiesConstants.USER +
+            "\"\n";
+        webTestClient
+            .post()
+            .uri("/api/admin/users/import")
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(csv)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(UserImportResultDTO.class)
+            .getResponseBody()
+            .collectList()
+            .as(results ->
+                assertThat(results.block()).extracting(UserImportResultDTO::getStatus).containsExactly(UserImportResultDTO.Status.CREATED)
+            );
+
+        User importedUser = userRepository.findOneWithAuthoritiesByLogin("import-csv").block();
+        assertThat(importedUser.getFirstName()).isEqualTo("Doe, Jane");
+        assertThat(importedUser.getLastName()).isNull();
+        assertThat(importedUser.getEmail()).isEqualTo("import-csv@localhost");
+        assertThat(importedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+    }
+
     @Test
     void getUser() {
         // Initialize the database
@@ -334,6 +580,27 @@ class UserResourceIT {
         assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNotNull();
     }
 
+    @Test
+    void getUserWithSeveralAuthorities() {
+        // Initialize the database
+        userRepository.save(user).block();
+        Flux
+            .just(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
+            .concatMap(authority -> userRepository.saveUserAuthority(user.getId(), authority))
+            .blockLast();
+
+        webTestClient
+            .get()
+            .uri("/api/admin/users/{login}", user.getLogin())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(AdminUserDTO.class)
+            .value(foundUser ->
+                assertThat(foundUser.getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
+            );
+    }
+
     @Test
     void getNonExistingUser() {
         webTestClient.get().uri("/api/admin/users/unknown").exchange().expectStatus().isNotFound();
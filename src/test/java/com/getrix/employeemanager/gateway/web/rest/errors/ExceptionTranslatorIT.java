@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -36,6 +37,21 @@ class ExceptionTranslatorIT {
             .isEqualTo(ErrorConstants.ERR_CONCURRENCY_FAILURE);
     }
 
+    @Test
+    void testPasswordHashingUnavailable() {
+        webTestClient
+            .get()
+            .uri("/api/exception-translator-test/password-hashing-unavailable")
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+            .expectHeader()
+            .valueEquals(HttpHeaders.RETRY_AFTER, "1")
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.http.503");
+    }
+
     @Test
     void testMethodArgumentNotValid() {
         webTestClient
@@ -2,6 +2,8 @@ package com.getrix.employeemanager.gateway.web.rest.errors;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import com.getrix.employeemanager.gateway.security.PasswordHashingUnavailableException;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
@@ -17,6 +19,11 @@ public class ExceptionTranslatorTestController {
         throw new ConcurrencyFailureException("test concurrency failure");
     }
 
+    @GetMapping("/password-hashing-unavailable")
+    public void passwordHashingUnavailable() {
+        throw new PasswordHashingUnavailableException(new RejectedExecutionException());
+    }
+
     @PostMapping("/method-argument")
     public void methodArgument(@Valid @RequestBody TestDTO testDTO) {}
 